@@ -0,0 +1,47 @@
+package benchmark;
+
+/**
+ * Classe astratta che modella un'operazione da misurare con {@link Harness}.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public abstract class Benchmark {
+
+	/**
+	 * Nome con cui l'operazione compare nei risultati.
+	 */
+	private String name;
+
+	/**
+	 * Accumula i risultati delle operazioni, in modo che il compilatore non possa eliminarle.
+	 */
+	protected double sink;
+
+	/**
+	 * @param name Nome dell'operazione
+	 */
+	protected Benchmark(String name)
+	{
+		this.name = name;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Esegue l'operazione una o piu' volte.
+	 * 
+	 * @return numero di operazioni eseguite
+	 */
+	public abstract int run();
+
+	/**
+	 * @return valore accumulato dalle operazioni eseguite
+	 */
+	double getSink()
+	{
+		return sink;
+	}
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * La classe misura il tempo medio e la memoria allocata per operazione di un
+ * {@link Benchmark}: esegue alcune iterazioni di riscaldamento (per permettere la
+ * compilazione del codice) seguite dalle iterazioni di misura, ciascuna della durata
+ * di almeno {@link #iterationMillis} millisecondi.
+ * La memoria allocata e' letta da {@link com.sun.management.ThreadMXBean} e riguarda
+ * solo il thread che esegue le operazioni.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class Harness {
+
+	private int warmupIterations;
+
+	private int measurementIterations;
+
+	private long iterationMillis;
+
+	private com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * @param warmupIterations Numero di iterazioni di riscaldamento
+	 * @param measurementIterations Numero di iterazioni di misura
+	 * @param iterationMillis Durata minima di ciascuna iterazione in millisecondi
+	 */
+	public Harness(int warmupIterations, int measurementIterations, long iterationMillis)
+	{
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.iterationMillis = iterationMillis;
+	}
+
+	/**
+	 * Misura il benchmark e ne stampa i risultati: tempo medio per operazione con la
+	 * deviazione standard tra le iterazioni, byte allocati per operazione e velocita'
+	 * di allocazione.
+	 * 
+	 * @param benchmark Operazione da misurare
+	 */
+	public void measure(Benchmark benchmark)
+	{
+		for(int i = 0; i < warmupIterations; i++)
+			iteration(benchmark);
+		double nanosPerOp[] = new double[measurementIterations];
+		long operations = 0, nanos = 0, bytes = 0;
+		for(int i = 0; i < measurementIterations; i++) {
+			long result[] = iteration(benchmark);
+			nanosPerOp[i] = (double)result[1] / result[0];
+			operations += result[0];
+			nanos += result[1];
+			bytes += result[2];
+		}
+		double mean = (double)nanos / operations;
+		double variance = 0;
+		for(int i = 0; i < measurementIterations; i++)
+			variance += (nanosPerOp[i] - mean) * (nanosPerOp[i] - mean);
+		double deviation = measurementIterations > 1 ? Math.sqrt(variance / (measurementIterations - 1)) : 0;
+		System.out.println(String.format("%-28s %14.1f +- %10.1f ns/op %14.1f B/op %10.1f MB/s  (%d op)",
+				benchmark.getName(), mean, deviation, (double)bytes / operations,
+				bytes / 1048576.0 / (nanos / 1e9), operations));
+		//il risultato accumulato viene letto per impedire l'eliminazione delle operazioni misurate
+		if(benchmark.getSink() == Double.MIN_VALUE)
+			System.out.println();
+	}
+
+	/**
+	 * Esegue il benchmark per almeno {@link #iterationMillis} millisecondi.
+	 * 
+	 * @param benchmark Operazione da eseguire
+	 * @return operazioni eseguite, nanosecondi trascorsi e byte allocati
+	 */
+	private long[] iteration(Benchmark benchmark)
+	{
+		long thread = Thread.currentThread().getId();
+		long operations = 0;
+		long allocated = threads.getThreadAllocatedBytes(thread);
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			operations += benchmark.run();
+			elapsed = System.nanoTime() - start;
+		} while(elapsed < iterationMillis * 1000000);
+		return new long[] {operations, elapsed, threads.getThreadAllocatedBytes(thread) - allocated};
+	}
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import data.Data;
+import data.DataBenchmarks;
+import data.SyntheticDataset;
+import mining.MiningBenchmarks;
+
+/**
+ * Esegue i benchmark dei package data e mining su una tabella sintetica in memoria,
+ * senza accedere alla base di dati. I parametri sono coppie nome=valore:
+ * n (righe), continuous e discrete (numero di attributi continui e discreti),
+ * domain (valori di ciascun attributo discreto), k (cluster), blobs (gruppi generati),
+ * zipf (esponente della distribuzione dei valori discreti), seed, warmup e iterations (iterazioni di riscaldamento e di misura), millis (durata
+ * di un'iterazione) e filter (esegue solo i benchmark il cui nome contiene il valore).
+ * 
+ * Esempio (dalla cartella KmeansServer, dopo aver compilato src e bench in out):
+ * java -cp out benchmark.Main n=100000 continuous=4 discrete=4 domain=20 k=10
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class Main {
+
+	public static void main(String[] args) throws Exception
+	{
+		Map<String, String> parameters = new HashMap<String, String>();
+		for(String arg : args) {
+			int separator = arg.indexOf('=');
+			if(separator < 0)
+				throw new IllegalArgumentException("parametro non valido: " + arg);
+			parameters.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		int n = get(parameters, "n", 100000);
+		int continuous = get(parameters, "continuous", 4);
+		int discrete = get(parameters, "discrete", 4);
+		int domain = get(parameters, "domain", 20);
+		int k = get(parameters, "k", 10);
+		int blobs = get(parameters, "blobs", k);
+		long seed = get(parameters, "seed", 1);
+		double zipf = parameters.containsKey("zipf") ? Double.parseDouble(parameters.get("zipf")) : 1.0;
+		String filter = parameters.containsKey("filter") ? parameters.get("filter") : "";
+		Harness harness = new Harness(get(parameters, "warmup", 5), get(parameters, "iterations", 10), get(parameters, "millis", 500));
+
+		System.out.println("n=" + n + " continuous=" + continuous + " discrete=" + discrete 
+				+ " domain=" + domain + " k=" + k + " blobs=" + blobs + " zipf=" + zipf + " seed=" + seed);
+		Data data = new Data(new SyntheticDataset(n, continuous, discrete, domain, blobs, zipf, seed));
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		benchmarks.addAll(DataBenchmarks.create(data));
+		benchmarks.addAll(MiningBenchmarks.create(data, k, seed));
+		for(Benchmark benchmark : benchmarks) {
+			if(benchmark.getName().contains(filter))
+				harness.measure(benchmark);
+		}
+	}
+
+	private static int get(Map<String, String> parameters, String name, int defaultValue)
+	{
+		return parameters.containsKey(name) ? Integer.parseInt(parameters.get(name)) : defaultValue;
+	}
+}
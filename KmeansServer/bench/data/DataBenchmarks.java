@@ -0,0 +1,75 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import benchmark.Benchmark;
+
+/**
+ * Benchmark delle operazioni del package data: distanza tra una riga e un centroide
+ * (sulle colonne di {@link Data} e tra tuple), calcolo del prototipo di un cluster e
+ * riduzione della tabella a un coreset.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class DataBenchmarks {
+
+	/**
+	 * Numero di righe elaborate da ciascuna esecuzione dei benchmark delle distanze.
+	 */
+	private static final int ROWS = 1024;
+
+	/**
+	 * Dimensione del coreset e numero di cluster del benchmark coreset.
+	 */
+	private static final int CORESET_SIZE = 1000, CORESET_K = 8;
+
+	/**
+	 * Crea i benchmark sulla tabella data.
+	 * 
+	 * @param data Tabella su cui eseguire le operazioni
+	 * @return benchmark da misurare
+	 */
+	public static List<Benchmark> create(final Data data)
+	{
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		final Tuple centroid = data.getItemSet(0);
+		final int rows = Math.min(ROWS, data.getNumberOfExamples());
+		benchmarks.add(new Benchmark("distance.kernel") {
+			public int run() {
+				for(int i = 0; i < rows; i++)
+					sink += centroid.getDistance(data, i);
+				return rows;
+			}
+		});
+		final Tuple tuples[] = new Tuple[rows];
+		for(int i = 0; i < rows; i++)
+			tuples[i] = data.getItemSet(i);
+		benchmarks.add(new Benchmark("distance.tuple") {
+			public int run() {
+				for(int i = 0; i < rows; i++)
+					sink += centroid.getDistance(tuples[i]);
+				return rows;
+			}
+		});
+		final ClusterStatistics statistics = new ClusterStatistics(data);
+		for(int i = 0; i < data.getNumberOfExamples(); i++)
+			statistics.add(data, i);
+		benchmarks.add(new Benchmark("computePrototype") {
+			public int run() {
+				for(int j = 0; j < data.getNumberOfAttributes(); j++)
+					sink += Data.computePrototype(statistics, data.getAttributeSchema().get(j)).hashCode();
+				return data.getNumberOfAttributes();
+			}
+		});
+		if(data.getNumberOfExamples() > CORESET_SIZE) {
+			benchmarks.add(new Benchmark("coreset") {
+				public int run() {
+					sink += data.coreset(CORESET_K, CORESET_SIZE, (long) sink).getNumberOfExamples();
+					return data.getNumberOfExamples();
+				}
+			});
+		}
+		return benchmarks;
+	}
+}
@@ -0,0 +1,74 @@
+package mining;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+/**
+ * Verifica che un modello salvato con la serializzazione Java dalle versioni precedenti del
+ * server (ad esempio giuseppe.dmp) possa ancora essere letto da {@link KMeansMiner#KMeansMiner(String)}.
+ * Il modello letto e' inoltre salvato e riletto sia con la serializzazione Java sia nel formato
+ * di {@link ModelFile}: in entrambi i casi i cluster devono restare invariati.
+ * Il parametro e' il file da leggere (default giuseppe.dmp); l'esito e' stampato e, in caso
+ * di errore, il processo termina con codice 1.
+ *
+ * Esempio (dalla cartella KmeansServer, dopo aver compilato src e bench in out):
+ * java -cp out mining.LegacyModelCheck giuseppe.dmp
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class LegacyModelCheck {
+
+	public static void main(String[] args) throws Exception
+	{
+		String fileName = args.length > 0 ? args[0] : "giuseppe.dmp";
+		ClusterSet C = new KMeansMiner(fileName).getC();
+		System.out.println(fileName + ": " + C.C.length + " cluster");
+		System.out.println(C);
+		for(int j = 0; j < C.C.length; j++) {
+			if(C.C[j] == null || C.C[j].getCentroid() == null)
+				fail("cluster " + j + " assente");
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(C);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		compare("serializzazione Java", C, (ClusterSet) in.readObject());
+		in.close();
+
+		File binary = File.createTempFile("kmeans", ".dmp");
+		try {
+			ModelFile.write(C, binary.getPath());
+			compare("formato binario", C, ModelFile.read(ModelFile.map(binary.getPath())));
+		} finally {
+			binary.delete();
+		}
+		System.out.println("OK");
+	}
+
+	/**
+	 * Verifica che i cluster riletti coincidano con quelli originali.
+	 */
+	private static void compare(String format, ClusterSet expected, ClusterSet actual)
+	{
+		if(!expected.toString().equals(actual.toString()))
+			fail(format + ": centroidi diversi");
+		if(!Arrays.equals(expected.assignment, actual.assignment))
+			fail(format + ": assegnazione delle righe diversa");
+		for(int j = 0; j < expected.C.length; j++) {
+			if(!Arrays.equals(expected.C[j].clusteredData.toArray(), actual.C[j].clusteredData.toArray()))
+				fail(format + ": righe del cluster " + j + " diverse");
+		}
+	}
+
+	private static void fail(String message)
+	{
+		System.out.println("ERRORE: " + message);
+		System.exit(1);
+	}
+}
@@ -0,0 +1,140 @@
+package mining;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import benchmark.Benchmark;
+import data.Data;
+import data.OutOfRangeSampleSize;
+import data.SAMPLING_TYPE;
+
+/**
+ * Benchmark delle operazioni del package mining: un passo di assegnazione di tutte le
+ * righe ai cluster, un aggiornamento dei centroidi e un'esecuzione completa di k-means
+ * (esatta e con assegnazione accelerata), il salvataggio e la lettura dei cluster scoperti
+ * nel formato binario (si veda {@link ModelFile}) e con la serializzazione Java.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class MiningBenchmarks {
+
+	/**
+	 * Crea i benchmark sulla tabella data con k cluster.
+	 * 
+	 * @param data Tabella su cui eseguire le operazioni
+	 * @param k Numero di cluster
+	 * @param seed Seme per la scelta dei centroidi iniziali
+	 * @return benchmark da misurare
+	 * @throws OutOfRangeSampleSize
+	 * @throws IOException se non e' possibile creare i file temporanei dei modelli
+	 */
+	public static List<Benchmark> create(final Data data, final int k, final long seed) throws OutOfRangeSampleSize, IOException
+	{
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		final ClusterSet C = new ClusterSet(k);
+		C.initializeCentroids(data, SAMPLING_TYPE.RANDOM, seed);
+		for(int i = 0; i < data.getNumberOfExamples(); i++)
+			C.assign(i, C.nearestClusterIndex(data, i));
+		benchmarks.add(new Benchmark("assignment.pass") {
+			public int run() {
+				for(int i = 0; i < data.getNumberOfExamples(); i++) {
+					int nearest = C.nearestClusterIndex(data, i);
+					C.assign(i, nearest);
+					sink += nearest;
+				}
+				return 1;
+			}
+		});
+		benchmarks.add(new Benchmark("centroid.update") {
+			public int run() {
+				sink += C.updateCentroids(data);
+				return 1;
+			}
+		});
+		benchmarks.add(new Benchmark("kmeans.run") {
+			public int run() {
+				sink += kmeans(data, k, seed, false);
+				return 1;
+			}
+		});
+		benchmarks.add(new Benchmark("kmeans.run.bounded") {
+			public int run() {
+				sink += kmeans(data, k, seed, true);
+				return 1;
+			}
+		});
+		final File binary = File.createTempFile("kmeans", ".dmp");
+		final File serialized = File.createTempFile("kmeans", ".ser");
+		binary.deleteOnExit();
+		serialized.deleteOnExit();
+		ModelFile.write(C, binary.getPath());
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(serialized));
+		try {
+			out.writeObject(C);
+		} finally {
+			out.close();
+		}
+		benchmarks.add(new Benchmark("model.save.binary") {
+			public int run() {
+				try {
+					ModelFile.write(C, binary.getPath());
+				} catch(IOException e) {
+					throw new IllegalStateException(e);
+				}
+				sink += binary.length();
+				return 1;
+			}
+		});
+		benchmarks.add(new Benchmark("model.load.binary." + binary.length() + "B") {
+			public int run() {
+				try {
+					sink += ModelFile.read(ModelFile.map(binary.getPath())).C.length;
+				} catch(IOException e) {
+					throw new IllegalStateException(e);
+				}
+				return 1;
+			}
+		});
+		benchmarks.add(new Benchmark("model.load.serialized." + serialized.length() + "B") {
+			public int run() {
+				try {
+					ObjectInputStream in = new ObjectInputStream(new FileInputStream(serialized));
+					try {
+						sink += ((ClusterSet) in.readObject()).C.length;
+					} finally {
+						in.close();
+					}
+				} catch(IOException e) {
+					throw new IllegalStateException(e);
+				} catch(ClassNotFoundException e) {
+					throw new IllegalStateException(e);
+				}
+				return 1;
+			}
+		});
+		return benchmarks;
+	}
+
+	/**
+	 * Esegue k-means sequenziale sulla tabella data.
+	 * 
+	 * @return SSE finale
+	 */
+	private static double kmeans(Data data, int k, long seed, boolean boundedAssignment)
+	{
+		KMeansMiner miner = new KMeansMiner(k);
+		miner.setSeed(seed);
+		miner.setBoundedAssignment(boundedAssignment);
+		try {
+			return miner.kmeans(data).getSse();
+		} catch(OutOfRangeSampleSize e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
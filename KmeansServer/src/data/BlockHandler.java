@@ -0,0 +1,162 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import database.RowHandler;
+
+/**
+ * La classe riceve le transazioni lette una alla volta dalla base di dati (si veda
+ * {@link database.RowHandler}) e le raccoglie per colonne in blocchi di dimensione fissa,
+ * codificate secondo uno schema degli attributi gia' noto (si veda
+ * {@link Data#loadAttributeSchema(database.TableData, database.TableSchema, String)}).
+ * Ogni blocco pieno e' passato a {@link #process(Data)} come oggetto {@link Data}, per cui
+ * la memoria occupata dipende dalla dimensione del blocco e non dal numero di transazioni.
+ * Le sottoclassi definiscono l'elaborazione dei blocchi; al termine della lettura va
+ * invocato {@link #flush()} per elaborare l'ultimo blocco, eventualmente incompleto.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public abstract class BlockHandler implements RowHandler {
+
+	/**
+	 * Schema degli attributi delle transazioni.
+	 */
+	private List<Attribute> schema;
+
+	/**
+	 * Numero di transazioni di ciascun blocco.
+	 */
+	private int blockSize;
+
+	private double continuousColumns[][];
+
+	private int discreteColumns[][];
+
+	private int weights[];
+
+	/**
+	 * Peso della transazione corrente (1 se la lettura non e' pesata).
+	 */
+	private int weight = 1;
+
+	/**
+	 * Numero di transazioni nel blocco corrente.
+	 */
+	private int buffered;
+
+	/**
+	 * Numero di transazioni lette.
+	 */
+	private long rows;
+
+	/**
+	 * @param schema Schema degli attributi delle transazioni
+	 * @param blockSize Numero di transazioni di ciascun blocco
+	 */
+	protected BlockHandler(List<Attribute> schema, int blockSize)
+	{
+		this.schema = schema;
+		this.blockSize = blockSize;
+		allocate();
+	}
+
+	private void allocate()
+	{
+		continuousColumns = new double[schema.size()][];
+		discreteColumns = new int[schema.size()][];
+		for(int j = 0; j < schema.size(); j++) {
+			if(schema.get(j) instanceof DiscreteAttribute)
+				discreteColumns[j] = new int[blockSize];
+			else
+				continuousColumns[j] = new double[blockSize];
+		}
+		weights = new int[blockSize];
+	}
+
+	public void handleNumber(int attributeIndex, double value)
+	{
+		continuousColumns[attributeIndex][buffered] = value;
+	}
+
+	/**
+	 * Memorizza il codice del valore nel dominio dell'attributo.
+	 *
+	 * @throws IllegalArgumentException se il valore non appartiene al dominio
+	 */
+	public void handleString(int attributeIndex, String value)
+	{
+		int code = ((DiscreteAttribute) schema.get(attributeIndex)).indexOf(value);
+		if(code < 0)
+			throw new IllegalArgumentException("valore " + value + " non presente nel dominio di " + schema.get(attributeIndex));
+		discreteColumns[attributeIndex][buffered] = code;
+	}
+
+	public void handleWeight(int weight)
+	{
+		this.weight = weight;
+	}
+
+	public void endRow()
+	{
+		weights[buffered++] = weight;
+		weight = 1;
+		rows++;
+		if(buffered == blockSize)
+			flush();
+	}
+
+	/**
+	 * Elabora le transazioni del blocco corrente, se presenti, e inizia un nuovo blocco.
+	 */
+	public void flush()
+	{
+		if(buffered == 0)
+			return;
+		final int n = buffered;
+		final double continuous[][] = continuousColumns;
+		final int discrete[][] = discreteColumns;
+		final int blockWeights[] = weights;
+		buffered = 0;
+		allocate();
+		process(new Data(new DatasetSource() {
+			public List<Attribute> getAttributeSchema() {
+				return new ArrayList<Attribute>(schema);
+			}
+
+			public int getNumberOfExamples() {
+				return n;
+			}
+
+			public double[] getContinuousColumn(int attributeIndex) {
+				return n == blockSize ? continuous[attributeIndex] : Arrays.copyOf(continuous[attributeIndex], n);
+			}
+
+			public int[] getDiscreteColumn(int attributeIndex) {
+				return n == blockSize ? discrete[attributeIndex] : Arrays.copyOf(discrete[attributeIndex], n);
+			}
+
+			public int[] getWeights() {
+				return n == blockSize ? blockWeights : Arrays.copyOf(blockWeights, n);
+			}
+		}));
+	}
+
+	/**
+	 * Elabora un blocco di transazioni.
+	 *
+	 * @param block Transazioni del blocco, con i rispettivi pesi
+	 */
+	protected abstract void process(Data block);
+
+	/**
+	 * Ritorna il numero di transazioni lette.
+	 *
+	 * @return {@link #rows}
+	 */
+	public long getRows()
+	{
+		return rows;
+	}
+}
@@ -0,0 +1,163 @@
+package data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * La classe mantiene le statistiche sufficienti al calcolo del centroide di un insieme di
+ * righe di {@link Data}: per ciascun attributo continuo la somma dei valori, per ciascun
+ * attributo discreto il numero di occorrenze di ogni valore del dominio.
+ * Ogni riga contribuisce con il proprio peso (si veda {@link Data#getWeight(int)}), come
+ * se fosse ripetuta tante volte quante sono le sue occorrenze nella tabella originale.
+ * Le statistiche sono aggiornate ogni volta che una riga entra o esce dall'insieme
+ * (si vedano {@link #add(Data, int)} e {@link #remove(Data, int)}), in modo che il calcolo
+ * del centroide non richieda la scansione delle righe.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class ClusterStatistics implements Serializable {
+
+	/**
+	 * Somma dei valori di ciascun attributo continuo (indicizzato per posizione
+	 * dell'attributo nello schema), 0 per gli attributi discreti.
+	 */
+	private double sums[];
+
+	/**
+	 * Per ciascun attributo discreto, numero di occorrenze di ogni valore del dominio
+	 * (indicizzato per codice, si veda {@link DiscreteAttribute#indexOf(String)});
+	 * null per gli attributi continui.
+	 */
+	private int counts[][];
+
+	/**
+	 * Numero di righe appartenenti all'insieme, ciascuna contata con il proprio peso.
+	 */
+	private int size;
+
+	/**
+	 * Inizializza statistiche vuote per lo schema specificato.
+	 * 
+	 * @param schema Schema della tabella (si veda {@link Data#getAttributeSchema()})
+	 */
+	public ClusterStatistics(List<Attribute> schema)
+	{
+		sums = new double[schema.size()];
+		counts = new int[schema.size()][];
+		for(int j = 0; j < schema.size(); j++) {
+			if(schema.get(j) instanceof DiscreteAttribute)
+				counts[j] = new int[((DiscreteAttribute) schema.get(j)).getNumberOfDistinctValues()];
+		}
+	}
+
+	/**
+	 * Inizializza statistiche vuote per lo schema della tabella specificata.
+	 * 
+	 * @param data Tabella a cui appartengono le righe dell'insieme
+	 */
+	public ClusterStatistics(Data data)
+	{
+		this(data.getAttributeSchema());
+	}
+
+	/**
+	 * Aggiorna le statistiche con i valori della riga id.
+	 * 
+	 * @param data Tabella a cui appartiene la riga
+	 * @param id Indice della riga che entra nell'insieme
+	 */
+	public void add(Data data, int id)
+	{
+		int weight = data.getWeight(id);
+		for(int j = 0; j < sums.length; j++) {
+			if(counts[j] != null)
+				counts[j][data.getDiscreteValue(id, j)] += weight;
+			else
+				sums[j] += weight * data.getContinuousValue(id, j);
+		}
+		size += weight;
+	}
+
+	/**
+	 * Aggiorna le statistiche con i valori della tupla specificata, che deve seguire lo
+	 * schema con cui sono state create le statistiche (si veda {@link Data#toTuple(List, database.Example)}).
+	 * 
+	 * @param tuple Tupla che entra nell'insieme
+	 * @throws IllegalArgumentException se un valore discreto non appartiene al dominio del
+	 *         suo attributo (ad esempio perche' inserito nella tabella dopo la lettura dello
+	 *         schema); in tal caso le statistiche non sono modificate
+	 */
+	public void add(Tuple tuple)
+	{
+		int codes[] = new int[sums.length];
+		for(int j = 0; j < sums.length; j++) {
+			if(counts[j] != null) {
+				DiscreteAttribute attribute = (DiscreteAttribute) tuple.get(j).getAttribute();
+				codes[j] = attribute.indexOf((String) tuple.get(j).getValue());
+				if(codes[j] < 0)
+					throw new IllegalArgumentException("valore " + tuple.get(j).getValue() + " non presente nel dominio di " + attribute);
+			}
+		}
+		for(int j = 0; j < sums.length; j++) {
+			if(counts[j] != null)
+				counts[j][codes[j]]++;
+			else
+				sums[j] += (Double) tuple.get(j).getValue();
+		}
+		size++;
+	}
+
+	/**
+	 * Rimuove dalle statistiche i valori della riga id.
+	 * 
+	 * @param data Tabella a cui appartiene la riga
+	 * @param id Indice della riga che esce dall'insieme
+	 */
+	public void remove(Data data, int id)
+	{
+		int weight = data.getWeight(id);
+		for(int j = 0; j < sums.length; j++) {
+			if(counts[j] != null)
+				counts[j][data.getDiscreteValue(id, j)] -= weight;
+			else
+				sums[j] -= weight * data.getContinuousValue(id, j);
+		}
+		size -= weight;
+	}
+
+	/**
+	 * Restituisce il numero di righe appartenenti all'insieme, ciascuna contata con il
+	 * proprio peso.
+	 * 
+	 * @return {@link #size}
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Restituisce la somma dei valori dell'attributo continuo in posizione attributeIndex.
+	 * 
+	 * @param attributeIndex Posizione dell'attributo nello schema
+	 * @return somma dei valori nelle righe dell'insieme
+	 */
+	double getSum(int attributeIndex)
+	{
+		return sums[attributeIndex];
+	}
+
+	/**
+	 * Restituisce il numero di righe dell'insieme in cui l'attributo discreto in posizione
+	 * attributeIndex assume il valore di codice code.
+	 * 
+	 * @param attributeIndex Posizione dell'attributo nello schema
+	 * @param code Codice del valore nel dominio dell'attributo
+	 * @return numero di occorrenze del valore
+	 */
+	int getCount(int attributeIndex, int code)
+	{
+		return counts[attributeIndex][code];
+	}
+}
@@ -0,0 +1,204 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import database.RowHandler;
+import database.TableSchema;
+
+/**
+ * La classe riceve le transazioni lette una alla volta dalla base di dati (si veda
+ * {@link database.TableData#scanTransazioni(String, TableSchema, RowHandler)}) e ne
+ * memorizza i valori direttamente per colonne, in blocchi di {@link #CHUNK_SIZE} righe:
+ * valori double per le colonne numeriche e codici provvisori (in ordine di comparsa) per
+ * le altre. Durante la lettura calcola gli estremi delle colonne numeriche e i valori
+ * distinti delle altre, per cui lo schema degli attributi non richiede altre interrogazioni.
+ * Al termine e' una {@link DatasetSource} da cui costruire {@link Data}: ciascuna colonna
+ * puo' essere richiesta una sola volta, perche' i blocchi vengono rilasciati man mano che
+ * sono copiati nella colonna completa (la memoria occupata resta cosi' vicina a una sola
+ * copia dei dati).
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+class ColumnLoader implements RowHandler, DatasetSource {
+
+	/**
+	 * Numero di righe di ciascun blocco.
+	 */
+	private static final int CHUNK_SIZE = 65536;
+
+	private TableSchema schema;
+
+	/**
+	 * Blocchi delle colonne numeriche (null per le altre).
+	 */
+	private List<List<double[]>> continuousChunks = new ArrayList<List<double[]>>();
+
+	/**
+	 * Blocchi delle colonne non numeriche (null per le numeriche).
+	 */
+	private List<List<int[]>> discreteChunks = new ArrayList<List<int[]>>();
+
+	/**
+	 * Per ciascuna colonna non numerica associa ogni valore al suo codice provvisorio.
+	 */
+	private List<Map<String, Integer>> codes = new ArrayList<Map<String, Integer>>();
+
+	/**
+	 * Per ciascuna colonna non numerica elenca i valori in ordine di comparsa.
+	 */
+	private List<List<String>> values = new ArrayList<List<String>>();
+
+	/**
+	 * Blocchi dei pesi delle transazioni, null se la lettura non e' pesata (si veda
+	 * {@link #handleWeight(int)}).
+	 */
+	private List<int[]> weightChunks;
+
+	private double min[], max[];
+
+	private int numberOfExamples;
+
+	/**
+	 * Byte letti: 8 per ciascun valore numerico e la lunghezza di ciascuna stringa.
+	 */
+	private long bytesRead;
+
+	/**
+	 * @param schema Schema della tabella letta
+	 */
+	ColumnLoader(TableSchema schema)
+	{
+		this.schema = schema;
+		int numberOfAttributes = schema.getNumberOfAttributes();
+		min = new double[numberOfAttributes];
+		max = new double[numberOfAttributes];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		for(int j = 0; j < numberOfAttributes; j++) {
+			boolean number = schema.getColumn(j).isNumber();
+			continuousChunks.add(number ? new ArrayList<double[]>() : null);
+			discreteChunks.add(number ? null : new ArrayList<int[]>());
+			codes.add(number ? null : new HashMap<String, Integer>());
+			values.add(number ? null : new ArrayList<String>());
+		}
+	}
+
+	public void handleNumber(int attributeIndex, double value)
+	{
+		List<double[]> chunks = continuousChunks.get(attributeIndex);
+		if(numberOfExamples % CHUNK_SIZE == 0)
+			chunks.add(new double[CHUNK_SIZE]);
+		chunks.get(chunks.size() - 1)[numberOfExamples % CHUNK_SIZE] = value;
+		if(value < min[attributeIndex])
+			min[attributeIndex] = value;
+		if(value > max[attributeIndex])
+			max[attributeIndex] = value;
+		bytesRead += 8;
+	}
+
+	public void handleString(int attributeIndex, String value)
+	{
+		Integer code = codes.get(attributeIndex).get(value);
+		if(code == null) {
+			code = values.get(attributeIndex).size();
+			codes.get(attributeIndex).put(value, code);
+			values.get(attributeIndex).add(value);
+		}
+		List<int[]> chunks = discreteChunks.get(attributeIndex);
+		if(numberOfExamples % CHUNK_SIZE == 0)
+			chunks.add(new int[CHUNK_SIZE]);
+		chunks.get(chunks.size() - 1)[numberOfExamples % CHUNK_SIZE] = code;
+		bytesRead += value.length();
+	}
+
+	public void handleWeight(int weight)
+	{
+		if(weightChunks == null)
+			weightChunks = new ArrayList<int[]>();
+		if(numberOfExamples % CHUNK_SIZE == 0)
+			weightChunks.add(new int[CHUNK_SIZE]);
+		weightChunks.get(weightChunks.size() - 1)[numberOfExamples % CHUNK_SIZE] = weight;
+		bytesRead += 4;
+	}
+
+	public void endRow()
+	{
+		numberOfExamples++;
+	}
+
+	/**
+	 * @return byte letti dalla base di dati (stima)
+	 */
+	long getBytesRead()
+	{
+		return bytesRead;
+	}
+
+	public List<Attribute> getAttributeSchema()
+	{
+		List<Attribute> explanatorySet = new ArrayList<Attribute>();
+		for(int j = 0; j < schema.getNumberOfAttributes(); j++) {
+			String name = schema.getColumn(j).getColumnName();
+			if(schema.getColumn(j).isNumber())
+				explanatorySet.add(new ContinuosAttribute(name, j, min[j], max[j]));
+			else
+				explanatorySet.add(new DiscreteAttribute(name, j, values.get(j).toArray(new String[values.get(j).size()])));
+		}
+		return explanatorySet;
+	}
+
+	public int getNumberOfExamples()
+	{
+		return numberOfExamples;
+	}
+
+	public double[] getContinuousColumn(int attributeIndex)
+	{
+		List<double[]> chunks = continuousChunks.get(attributeIndex);
+		double column[] = new double[numberOfExamples];
+		for(int c = 0; c < chunks.size(); c++) {
+			System.arraycopy(chunks.get(c), 0, column, c * CHUNK_SIZE, Math.min(CHUNK_SIZE, numberOfExamples - c * CHUNK_SIZE));
+			chunks.set(c, null);
+		}
+		return column;
+	}
+
+	/**
+	 * Ritorna i codici della colonna, convertendo i codici provvisori nelle posizioni dei
+	 * valori nel dominio ordinato.
+	 */
+	public int[] getDiscreteColumn(int attributeIndex)
+	{
+		String sorted[] = values.get(attributeIndex).toArray(new String[values.get(attributeIndex).size()]);
+		Arrays.sort(sorted);
+		int rank[] = new int[sorted.length];
+		for(int code = 0; code < rank.length; code++)
+			rank[code] = Arrays.binarySearch(sorted, values.get(attributeIndex).get(code));
+		List<int[]> chunks = discreteChunks.get(attributeIndex);
+		int column[] = new int[numberOfExamples];
+		for(int c = 0; c < chunks.size(); c++) {
+			int chunk[] = chunks.get(c);
+			int length = Math.min(CHUNK_SIZE, numberOfExamples - c * CHUNK_SIZE);
+			for(int i = 0; i < length; i++)
+				column[c * CHUNK_SIZE + i] = rank[chunk[i]];
+			chunks.set(c, null);
+		}
+		return column;
+	}
+
+	public int[] getWeights()
+	{
+		if(weightChunks == null)
+			return null;
+		int column[] = new int[numberOfExamples];
+		for(int c = 0; c < weightChunks.size(); c++) {
+			System.arraycopy(weightChunks.get(c), 0, column, c * CHUNK_SIZE, Math.min(CHUNK_SIZE, numberOfExamples - c * CHUNK_SIZE));
+			weightChunks.set(c, null);
+		}
+		return column;
+	}
+}
@@ -11,9 +11,14 @@ import java.io.Serializable;
  * @author Veronico, Mazzone, Sgaramella
  *
  */
-@SuppressWarnings("serial")
 public class ContinuosAttribute extends Attribute implements Serializable{
 
+	/**
+	 * Identificativo di versione calcolato sulla classe originale, mantenuto in modo che
+	 * i cluster salvati con la serializzazione Java possano ancora essere letti.
+	 */
+	private static final long serialVersionUID = 1975496882473401917L;
+
 	/**
 	 * Estremo massimo dell'intervallo di valori (dominio) che l'attributo puo' reamente assumere.
 	 */
@@ -54,6 +59,26 @@ public class ContinuosAttribute extends Attribute implements Serializable{
 		return (v-min)/(max-min);	
 	}
 
+	/**
+	 * Restituisce l'estremo minimo dell'intervallo.
+	 * 
+	 * @return min
+	 */
+	double getMin()
+	{
+		return min;
+	}
+
+	/**
+	 * Restituisce l'estremo massimo dell'intervallo.
+	 * 
+	 * @return max
+	 */
+	double getMax()
+	{
+		return max;
+	}
+
 	
 
 
@@ -31,8 +31,8 @@ public class ContinuosItem extends Item implements Serializable{
 	@Override
 	public double distance(Object a) {
 		double distance=0.0;
-		distance=Math.abs(((ContinuosAttribute)this.getAttribute()).getScaledValue(Double.parseDouble(this.getValue().toString()))-
-				((ContinuosAttribute)this.getAttribute()).getScaledValue(Double.parseDouble(a.toString())));
+		distance=Math.abs(((ContinuosAttribute)this.getAttribute()).getScaledValue((Double) this.getValue())-
+				((ContinuosAttribute)this.getAttribute()).getScaledValue((Double) a));
 		return distance;
 	}
 
@@ -0,0 +1,95 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * La classe costruisce, in un'unica passata sulle transazioni lette dalla base di dati, un
+ * coreset della tabella: un piccolo insieme di righe pesate su cui l'algoritmo k-means
+ * (si veda {@link mining.KMeansMiner#kmeans(Data)}) produce centroidi con SSE vicino a
+ * quello ottenibile sulla tabella completa.
+ * Le transazioni sono raccolte in blocchi di {@link #size} righe (si veda
+ * {@link BlockHandler}) e ridotte con lo schema merge-and-reduce: ogni blocco entra nel
+ * livello 0; quando un livello e' gia' occupato i due insiemi sono uniti, ridotti a
+ * {@link #size} righe con il campionamento per sensitivita' (si veda
+ * {@link Data#coreset(int, int, long)}) e portati al livello successivo. In memoria
+ * restano quindi al piu' un blocco e un coreset per livello, cioe' size*log2(n/size)
+ * righe per una tabella di n righe.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class CoresetBuilder extends BlockHandler {
+
+	/**
+	 * Numero di cluster per cui il coreset deve valere.
+	 */
+	private int k;
+
+	/**
+	 * Dimensione massima del coreset (e dei blocchi).
+	 */
+	private int size;
+
+	/**
+	 * Coreset di ciascun livello (null se il livello e' vuoto): quello di livello l
+	 * rappresenta size*2^l righe lette.
+	 */
+	private List<Data> levels = new ArrayList<Data>();
+
+	private Random rand;
+
+	/**
+	 * @param schema Schema degli attributi delle transazioni
+	 * @param k Numero di cluster per cui il coreset deve valere
+	 * @param size Dimensione massima del coreset, almeno pari a k
+	 * @param seed Seme per il campionamento
+	 */
+	public CoresetBuilder(List<Attribute> schema, int k, int size, long seed)
+	{
+		super(schema, size);
+		if(k <= 0 || size < k)
+			throw new IllegalArgumentException("dimensione del coreset " + size + " non valida per k=" + k);
+		this.k = k;
+		this.size = size;
+		this.rand = new Random(seed);
+	}
+
+	@Override
+	protected void process(Data block)
+	{
+		Data carry = block;
+		int level = 0;
+		while(level < levels.size() && levels.get(level) != null) {
+			List<Data> pair = new ArrayList<Data>();
+			pair.add(levels.get(level));
+			pair.add(carry);
+			carry = new Data(pair).coreset(k, size, rand.nextLong());
+			levels.set(level, null);
+			level++;
+		}
+		if(level == levels.size())
+			levels.add(carry);
+		else
+			levels.set(level, carry);
+	}
+
+	/**
+	 * Completa la lettura e ritorna il coreset: unisce i coreset di tutti i livelli e, se
+	 * superano {@link #size} righe, li riduce un'ultima volta.
+	 *
+	 * @return coreset delle transazioni lette, null se non ne e' stata letta nessuna
+	 */
+	public Data build()
+	{
+		flush();
+		List<Data> parts = new ArrayList<Data>();
+		for(Data level : levels) {
+			if(level != null)
+				parts.add(level);
+		}
+		if(parts.isEmpty())
+			return null;
+		return new Data(parts).coreset(k, size, rand.nextLong());
+	}
+}
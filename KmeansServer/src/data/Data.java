@@ -2,20 +2,22 @@ package data;
 
 import java.io.Serializable;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import database.DatabaseConnectionException;
 import database.DbAccess;
 import database.EmptySetException;
 import database.Example;
 import database.NoValueException;
-import database.QUERY_TYPE;
 import database.TableData;
 import database.TableSchema;
+import database.TableSchema.Column;
 
 /**
  * La classe Data modella l'insieme di transazioni (o tuple) ottenute dalla base di dati.
@@ -23,8 +25,10 @@ import database.TableSchema;
  * singole tuple appartenenti alla base di dati rendendole utilizzabili all'interno dell'intero 
  * sistema.
  * La gestione delle tuple avviene tramite i metodi della classe {@link database.TableData} in
- * particolare: {@link database.TableData#getDistinctTransazioni(String)}, 
- * {@link database.TableData#getAggregateColumnValue(String, database.TableSchema.Column, QUERY_TYPE)},
+ * particolare: {@link database.TableData#scanTransazioni(String, database.TableSchema, database.RowHandler)}
+ * (o {@link database.TableData#scanWeightedTransazioni(String, database.TableSchema, database.RowHandler)}
+ * per la lettura pesata), che percorre la tabella una sola volta,
+ * {@link database.TableData#getMinMaxColumnValues(String, List)},
  * {@link database.TableData#getDistinctColumnValues(String, database.TableSchema.Column)},
  * sfruttando il risultato della classe {@link database.TableSchema} (tale classe infatti
  * si occupa di ottenere una versione - utilizzabile all'interno del sistema - della tabella
@@ -33,6 +37,10 @@ import database.TableSchema;
  * Le tuple che caratterizzeranno la tabella data sono univoche, quindi duplicati presenti
  * all'interno della base di dati verranno considerati una sola volta (migliorando cosi' le 
  * operazioni di scoperta dei cluster e rendendole piu' efficienti).
+ * Con la lettura pesata (si veda {@link #Data(String, int, boolean)}) ciascuna tupla
+ * conserva anche il numero di righe della base di dati che rappresenta (si veda
+ * {@link #getWeight(int)}): centroidi e SSE sono allora gli stessi che si otterrebbero
+ * sull'intera tabella, duplicati compresi.
  * Quindi la tabella Data rappresenta tutti i dati che verranno utilizzati all'interno del sistema,
  * non a caso prima di effettuare qualsiasi operazione da parte del server, viene innanzitutto 
  * istanziato un oggetto di questa classe e i dati prodotti vengono resi disponibili per tutti 
@@ -54,45 +62,384 @@ import database.TableSchema;
 @SuppressWarnings("serial")
 public class Data implements Serializable {
 	
-    /**
-     * Indica una matrice nXm di tipo Object dove ogni riga modella una transazione
-     */
-	private List<Example> data;
+	/**
+	 * Memorizzazione per colonne dei valori degli attributi continui: la colonna in posizione j
+	 * contiene i valori (double) dell'attributo j per tutte le transazioni, e' null se
+	 * l'attributo j e' discreto.
+	 */
+	private double[][] continuousColumns;
+	
+	/**
+	 * Memorizzazione per colonne dei valori degli attributi discreti: la colonna in posizione j
+	 * contiene, per ogni transazione, l'indice del valore nel dominio dell'attributo j
+	 * (si veda {@link DiscreteAttribute#indexOf(String)}), e' null se l'attributo j e' continuo.
+	 */
+	private int[][] discreteColumns;
 	
 	/**
 	 * Indica la cardinalita' dell'insieme di transazioni (numero di righe in data)
 	 */
 	private int numberOfExamples;
 	
+	/**
+	 * Peso di ciascuna transazione, ovvero il numero di righe della tabella originale uguali
+	 * ad essa; null se ogni transazione vale 1.
+	 */
+	private int weights[];
+	
 	/**
 	 * Indica un vettore degli attributi in ciascuna tupla (schema della tabella di dati)
 	 */
-	private List<Attribute> explanatorySet = new LinkedList<Attribute>();// 
+	private List<Attribute> explanatorySet = new ArrayList<Attribute>();// 
+	
+	/**
+	 * Esito della lettura dalla base di dati, null se la tabella e' stata costruita in memoria.
+	 */
+	private transient LoadReport loadReport;
 
 	public Data(String tableName) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException 
 	{
+		this(tableName, TableData.STREAMING_FETCH_SIZE);
+	}
+	
+	/**
+	 * Legge la tabella tableName dalla base di dati in un'unica passata in avanti (si veda
+	 * {@link TableData#scanTransazioni(String, TableSchema, database.RowHandler)}),
+	 * memorizzando i valori direttamente per colonne senza costruire una lista di
+	 * transazioni: la memoria occupata resta vicina a una sola copia dei dati. Lo schema
+	 * degli attributi e' ricavato durante la stessa lettura (si veda {@link ColumnLoader}).
+	 * 
+	 * @param tableName Nome della tabella nella base di dati
+	 * @param fetchSize Dimensione di fetch (si veda {@link TableData#setFetchSize(int)})
+	 */
+	public Data(String tableName, int fetchSize) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException 
+	{
+		this(tableName, fetchSize, false);
+	}
+	
+	/**
+	 * Come {@link #Data(String, int)}; se weighted e' vero le righe uguali non sono scartate
+	 * ma raggruppate dalla base di dati (si veda
+	 * {@link TableData#scanWeightedTransazioni(String, TableSchema, database.RowHandler)}):
+	 * ogni transazione distinta e' memorizzata una sola volta insieme al numero delle sue
+	 * occorrenze, che ne diventa il peso nel calcolo dei centroidi e dell'SSE.
+	 * 
+	 * @param tableName Nome della tabella nella base di dati
+	 * @param fetchSize Dimensione di fetch (si veda {@link TableData#setFetchSize(int)})
+	 * @param weighted Vero per conservare il numero di occorrenze di ciascuna transazione
+	 */
+	public Data(String tableName, int fetchSize, boolean weighted) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException 
+	{
+		long start = System.currentTimeMillis();
 		DbAccess db = new DbAccess();
-		DbAccess.initConnection();
-		TableData table = new TableData(db);
-		data = table.getDistinctTransazioni(tableName);
-
-		numberOfExamples = data.size();
-
-		TableSchema schema = new TableSchema(db, tableName);
-		explanatorySet = new LinkedList<Attribute>();
+		db.initConnection();
+		ColumnLoader loader;
+		try {
+			TableData table = new TableData(db);
+			table.setFetchSize(fetchSize);
+			TableSchema schema = new TableSchema(db, tableName);
+			loader = new ColumnLoader(schema);
+			if(weighted)
+				table.scanWeightedTransazioni(tableName, schema, loader);
+			else
+				table.scanTransazioni(tableName, schema, loader);
+		} finally {
+			db.closeConnection();
+		}
+		load(loader);
+		loadReport = new LoadReport(numberOfExamples, loader.getBytesRead(), System.currentTimeMillis() - start);
+	}
+	
+	/**
+	 * Costruisce la tabella a partire da una sorgente in memoria (ad esempio
+	 * {@link InMemoryDataset} o {@link SyntheticDataset}), senza accedere alla base di dati.
+	 * A differenza di {@link #Data(String)} le transazioni duplicate non sono eliminate
+	 * (si veda {@link #deduplicate()}).
+	 * 
+	 * @param source Sorgente delle transazioni
+	 */
+	public Data(DatasetSource source)
+	{
+		load(source);
+	}
+	
+	/**
+	 * Inizializza schema e colonne a partire da source.
+	 * 
+	 * @param source Sorgente delle transazioni
+	 */
+	private void load(DatasetSource source)
+	{
+		explanatorySet = source.getAttributeSchema();
+		numberOfExamples = source.getNumberOfExamples();
+		int numberOfAttributes = getNumberOfAttributes();
+		continuousColumns = new double[numberOfAttributes][];
+		discreteColumns = new int[numberOfAttributes][];
+		for(int j = 0; j < numberOfAttributes; j++) {
+			Attribute attribute = explanatorySet.get(j);
+			if(attribute.getIndex() != j)
+				throw new IllegalArgumentException("indice dell'attributo " + attribute + " diverso da " + j);
+			if(attribute instanceof DiscreteAttribute)
+				discreteColumns[j] = source.getDiscreteColumn(j);
+			else
+				continuousColumns[j] = source.getContinuousColumn(j);
+			int length = attribute instanceof DiscreteAttribute ? discreteColumns[j].length : continuousColumns[j].length;
+			if(length != numberOfExamples)
+				throw new IllegalArgumentException("la colonna " + attribute + " non ha " + numberOfExamples + " valori");
+		}
+		weights = source.getWeights();
+		if(weights != null && weights.length != numberOfExamples)
+			throw new IllegalArgumentException("i pesi non sono " + numberOfExamples);
+	}
+	
+	/**
+	 * Costruisce una tabella con le stesse transazioni di data, una sola volta ciascuna e con
+	 * peso pari alla somma dei pesi delle sue occorrenze (si veda {@link #deduplicate()}).
+	 * 
+	 * @param data Tabella di partenza
+	 * @param rows Indice in data della prima occorrenza di ciascuna transazione distinta
+	 * @param weights Peso di ciascuna transazione distinta
+	 */
+	private Data(Data data, int rows[], int weights[])
+	{
+		explanatorySet = data.explanatorySet;
+		numberOfExamples = rows.length;
+		this.weights = weights;
+		int numberOfAttributes = getNumberOfAttributes();
+		continuousColumns = new double[numberOfAttributes][];
+		discreteColumns = new int[numberOfAttributes][];
+		for(int j = 0; j < numberOfAttributes; j++) {
+			if(data.discreteColumns[j] != null) {
+				discreteColumns[j] = new int[numberOfExamples];
+				for(int i = 0; i < numberOfExamples; i++)
+					discreteColumns[j][i] = data.discreteColumns[j][rows[i]];
+			} else {
+				continuousColumns[j] = new double[numberOfExamples];
+				for(int i = 0; i < numberOfExamples; i++)
+					continuousColumns[j][i] = data.continuousColumns[j][rows[i]];
+			}
+		}
+	}
+	
+	/**
+	 * Costruisce la tabella formata dalle righe di parts, nell'ordine, con i rispettivi pesi.
+	 * Le tabelle devono avere lo stesso schema.
+	 * 
+	 * @param parts Tabelle da unire (almeno una)
+	 */
+	Data(List<Data> parts)
+	{
+		explanatorySet = parts.get(0).explanatorySet;
+		for(Data part : parts)
+			numberOfExamples += part.numberOfExamples;
+		weights = new int[numberOfExamples];
+		int numberOfAttributes = getNumberOfAttributes();
+		continuousColumns = new double[numberOfAttributes][];
+		discreteColumns = new int[numberOfAttributes][];
+		for(int j = 0; j < numberOfAttributes; j++) {
+			if(parts.get(0).discreteColumns[j] != null)
+				discreteColumns[j] = new int[numberOfExamples];
+			else
+				continuousColumns[j] = new double[numberOfExamples];
+		}
+		int offset = 0;
+		for(Data part : parts) {
+			for(int j = 0; j < numberOfAttributes; j++) {
+				if(discreteColumns[j] != null)
+					System.arraycopy(part.discreteColumns[j], 0, discreteColumns[j], offset, part.numberOfExamples);
+				else
+					System.arraycopy(part.continuousColumns[j], 0, continuousColumns[j], offset, part.numberOfExamples);
+			}
+			for(int i = 0; i < part.numberOfExamples; i++)
+				weights[offset + i] = part.getWeight(i);
+			offset += part.numberOfExamples;
+		}
+	}
+	
+	/**
+	 * Riduce la tabella a un coreset di al piu' size righe pesate, su cui l'SSE di
+	 * qualsiasi insieme di k centroidi approssima quello sulla tabella completa (con errore
+	 * relativo che decresce come 1/sqrt(size), con alta probabilita').
+	 * Le righe sono estratte con campionamento per sensitivita': si scelgono k centroidi
+	 * con k-means++ e ogni riga e' estratta con probabilita' proporzionale a
+	 * w*d^2/costo + w/W, dove w e' il peso della riga, d la distanza dal centroide piu'
+	 * vicino, costo l'SSE rispetto ai k centroidi e W il peso complessivo del suo cluster.
+	 * Ogni riga estratta riceve come peso l'inverso della probabilita' di estrazione,
+	 * arrotondato casualmente all'intero (il peso atteso e' quello esatto); le righe il cui
+	 * peso si arrotonda a 0 sono scartate.
+	 * 
+	 * @param k Numero di cluster per cui il coreset deve valere
+	 * @param size Numero di estrazioni (dimensione massima del coreset)
+	 * @param seed Seme del generatore di numeri casuali
+	 * @return la tabella stessa se non ha piu' di size righe, altrimenti il coreset
+	 */
+	public Data coreset(int k, int size, long seed)
+	{
+		if(numberOfExamples <= size)
+			return this;
+		Random rand = new Random(seed);
+		int centroids[];
+		try {
+			centroids = kMeansPlusPlus(k, rand);
+		} catch(OutOfRangeSampleSize e) {
+			//meno di k righe distinte: la tabella senza duplicati e' gia' un coreset esatto
+			return deduplicate();
+		}
+		int rows[] = new int[numberOfExamples];
+		for(int i = 0; i < numberOfExamples; i++)
+			rows[i] = i;
+		double squaredDistances[] = new double[numberOfExamples];
+		Arrays.fill(squaredDistances, Double.POSITIVE_INFINITY);
+		int owners[] = new int[numberOfExamples];
+		updateSquaredDistances(rows, squaredDistances, owners, centroids, 0);
+		double cost = 0;
+		double clusterWeights[] = new double[k];
+		for(int i = 0; i < numberOfExamples; i++) {
+			cost += getWeight(i) * squaredDistances[i];
+			clusterWeights[owners[i]] += getWeight(i);
+		}
+		//distribuzione cumulativa delle sensitivita'
+		double cumulative[] = new double[numberOfExamples];
+		double total = 0;
+		for(int i = 0; i < numberOfExamples; i++) {
+			total += (cost > 0 ? getWeight(i) * squaredDistances[i] / cost : 0) + getWeight(i) / clusterWeights[owners[i]];
+			cumulative[i] = total;
+		}
+		double sampledWeights[] = new double[numberOfExamples];
+		for(int s = 0; s < size; s++) {
+			int i = Arrays.binarySearch(cumulative, rand.nextDouble() * total);
+			if(i < 0)
+				i = Math.min(-i - 1, numberOfExamples - 1);
+			double probability = (cumulative[i] - (i > 0 ? cumulative[i - 1] : 0)) / total;
+			sampledWeights[i] += getWeight(i) / (size * probability);
+		}
+		int chosen[] = new int[size];
+		int coresetWeights[] = new int[size];
+		int count = 0;
+		for(int i = 0; i < numberOfExamples; i++) {
+			if(sampledWeights[i] > 0) {
+				int weight = (int) sampledWeights[i];
+				if(rand.nextDouble() < sampledWeights[i] - weight)
+					weight++;
+				if(weight > 0) {
+					chosen[count] = i;
+					coresetWeights[count++] = weight;
+				}
+			}
+		}
+		return new Data(this, Arrays.copyOf(chosen, count), Arrays.copyOf(coresetWeights, count));
+	}
+	
+	/**
+	 * Raggruppa in memoria le transazioni uguali, tramite una tabella hash sui valori delle
+	 * righe: e' l'equivalente della lettura pesata (si veda {@link #Data(String, int, boolean)})
+	 * per le tabelle costruite da una {@link DatasetSource}. L'ordine delle transazioni e'
+	 * quello della loro prima occorrenza.
+	 * 
+	 * @return tabella con una transazione per ciascun gruppo di righe uguali, pesata con la
+	 * 		   somma dei pesi del gruppo
+	 * @throws IllegalStateException se la tabella ha 2^30 righe o piu', oltre la dimensione
+	 * 		   massima della tabella hash
+	 */
+	public Data deduplicate()
+	{
+		//la dimensione e' una potenza di 2, al piu' 2^30 (il massimo rappresentabile in un int)
+		long capacity = Math.min(4L * Integer.highestOneBit(Math.max(1, numberOfExamples)), 1 << 30);
+		if(numberOfExamples >= capacity)
+			throw new IllegalStateException("troppe righe da raggruppare: " + numberOfExamples);
+		int slots[] = new int[(int) capacity];
+		Arrays.fill(slots, -1);
+		int mask = slots.length - 1;
+		int rows[] = new int[numberOfExamples];
+		int sums[] = new int[numberOfExamples];
+		int distinct = 0;
+		for(int i = 0; i < numberOfExamples; i++) {
+			int slot = hash(i) & mask;
+			while(slots[slot] >= 0 && !compare(rows[slots[slot]], i))
+				slot = (slot + 1) & mask;
+			if(slots[slot] < 0) {
+				slots[slot] = distinct;
+				rows[distinct++] = i;
+			}
+			sums[slots[slot]] += getWeight(i);
+		}
+		return new Data(this, Arrays.copyOf(rows, distinct), Arrays.copyOf(sums, distinct));
+	}
+	
+	/**
+	 * Calcola il codice hash dei valori della riga i, coerente con {@link #compare(int, int)}.
+	 * 
+	 * @param i indice della riga
+	 * @return codice hash della riga
+	 */
+	private int hash(int i)
+	{
+		int h = 1;
+		for(int k = 0; k < getNumberOfAttributes(); k++) {
+			double value = discreteColumns[k] != null ? discreteColumns[k][i] : continuousColumns[k][i];
+			//0.0 e -0.0 sono uguali per compare(int, int)
+			h = 31 * h + Double.hashCode(value == 0 ? 0 : value);
+		}
+		h ^= h >>> 16;
+		return h * 0x9E3779B9;
+	}
+	
+	/**
+	 * Costruisce lo schema degli attributi della tabella tableName: per ogni colonna numerica
+	 * un {@link ContinuosAttribute} con gli estremi letti dalla base di dati, per ogni altra
+	 * colonna un {@link DiscreteAttribute} con i valori distinti presenti nella colonna.
+	 * 
+	 * @param table Accesso alle tuple della base di dati
+	 * @param schema Schema della tabella nella base di dati
+	 * @param tableName Nome della tabella
+	 * @return Lista degli attributi, nell'ordine delle colonne
+	 * @throws SQLException
+	 * @throws NoValueException
+	 */
+	public static List<Attribute> loadAttributeSchema(TableData table, TableSchema schema, String tableName) throws SQLException, NoValueException
+	{
+		List<Column> numericColumns = new ArrayList<Column>();
+		for(int i = 0; i < schema.getNumberOfAttributes(); i++) {
+			if(schema.getColumn(i).isNumber())
+				numericColumns.add(schema.getColumn(i));
+		}
+		//estremi di tutti gli attributi continui con un'unica interrogazione
+		Object minMax[][] = numericColumns.isEmpty() ? new Object[0][] : table.getMinMaxColumnValues(tableName, numericColumns);
+		List<Attribute> explanatorySet = new ArrayList<Attribute>();
+		int numeric = 0;
 		for(int i = 0; i < schema.getNumberOfAttributes(); i++) {
 			if(schema.getColumn(i).isNumber()) {
-				double min = Double.parseDouble(table.getAggregateColumnValue(tableName, schema.getColumn(i), QUERY_TYPE.MIN).toString());
-				double max = Double.parseDouble(table.getAggregateColumnValue(tableName, schema.getColumn(i), QUERY_TYPE.MAX).toString());
+				double min = Double.parseDouble(minMax[numeric][0].toString());
+				double max = Double.parseDouble(minMax[numeric][1].toString());
+				numeric++;
 				explanatorySet.add(new ContinuosAttribute(schema.getColumn(i).getColumnName(),i, min, max));
 			}else {
-				String[] value= (String[])table.getDistinctColumnValues(tableName, schema.getColumn(i)).toArray(new String[table.getDistinctColumnValues(tableName, schema.getColumn(i)).size()]);
+				Set<Object> values = table.getDistinctColumnValues(tableName, schema.getColumn(i));
+				String[] value= values.toArray(new String[values.size()]);
 				explanatorySet.add(new DiscreteAttribute(schema.getColumn(i).getColumnName(),i, value));
 			}
 		}
-		DbAccess.closeConnection();
+		return explanatorySet;
+	}
+	
+	/**
+	 * Costruisce la tupla corrispondente ad una transazione letta dalla base di dati, senza
+	 * memorizzarla in un oggetto Data.
+	 * 
+	 * @param schema Schema degli attributi (si veda {@link #loadAttributeSchema(TableData, TableSchema, String)})
+	 * @param example Transazione letta dalla base di dati
+	 * @return Tupla con un item per ciascun attributo dello schema
+	 */
+	public static Tuple toTuple(List<Attribute> schema, Example example)
+	{
+		Tuple tuple=new Tuple(schema.size());
+		for(int i=0;i<schema.size();i++)
+			if(schema.get(i) instanceof DiscreteAttribute)
+				tuple.add(new DiscreteItem(schema.get(i), (String) example.get(i)), i);
+			else if (schema.get(i) instanceof ContinuosAttribute)
+				tuple.add(new ContinuosItem(schema.get(i), (Double) example.get(i)), i);
+		return tuple;
 	}
-
 
 	/**
 	 * Restituisce il numero di tuple, quindi il numero di esempi salvati in memoria
@@ -102,6 +449,66 @@ public class Data implements Serializable {
 		return this.numberOfExamples;
 	}
 	
+	/**
+	 * Restituisce il peso della riga id, ovvero il numero di righe della tabella originale
+	 * che essa rappresenta.
+	 * 
+	 * @param id indice di riga
+	 * @return peso della riga, 1 se la tabella non e' pesata
+	 */
+	public int getWeight(int id)
+	{
+		return weights == null ? 1 : weights[id];
+	}
+	
+	/**
+	 * Restituisce la somma dei pesi delle righe, ovvero il numero di righe della tabella
+	 * originale.
+	 * 
+	 * @return somma dei pesi, pari a {@link #getNumberOfExamples()} se la tabella non e' pesata
+	 */
+	public long getTotalWeight()
+	{
+		if(weights == null)
+			return numberOfExamples;
+		long total = 0;
+		for(int w : weights)
+			total += w;
+		return total;
+	}
+	
+	/**
+	 * Ritorna l'esito della lettura dalla base di dati (righe, byte, tempo).
+	 * 
+	 * @return {@link #loadReport}, null se la tabella e' stata costruita in memoria
+	 */
+	public LoadReport getLoadReport()
+	{
+		return loadReport;
+	}
+	
+	/**
+	 * Stima la memoria occupata dai valori della tabella: 8 byte per ciascun valore
+	 * continuo e 4 byte per ciascun codice discreto, oltre ai domini degli attributi
+	 * discreti e a 4 byte per ciascun peso (le intestazioni degli oggetti non sono considerate).
+	 * 
+	 * @return numero di byte stimato
+	 */
+	public long getSizeInBytes()
+	{
+		long bytes = weights == null ? 0 : 4L * weights.length;
+		for(int j = 0; j < getNumberOfAttributes(); j++) {
+			if(continuousColumns[j] != null)
+				bytes += 8L * continuousColumns[j].length;
+			if(discreteColumns[j] != null) {
+				bytes += 4L * discreteColumns[j].length;
+				for(String value : (DiscreteAttribute) explanatorySet.get(j))
+					bytes += 2L * value.length();
+			}
+		}
+		return bytes;
+	}
+	
 	/**
 	 * Restituisce il numero di attributi
 	 * @return restituisce explanatorySet.size()
@@ -131,18 +538,87 @@ public class Data implements Serializable {
 	 */
 	public Object getAttributeValue(int exampleIndex, int attributeIndex)
 	{
-		return data.get(exampleIndex).get(attributeIndex);
+		if(discreteColumns[attributeIndex] != null)
+			return ((DiscreteAttribute) explanatorySet.get(attributeIndex)).getValue(discreteColumns[attributeIndex][exampleIndex]);
+		return continuousColumns[attributeIndex][exampleIndex];
+	}
+	
+	/**
+	 * Restituisce il valore (non scalato) dell'attributo continuo in posizione attributeIndex
+	 * nella riga exampleIndex, senza creare oggetti.
+	 * 
+	 * @param exampleIndex indice di riga
+	 * @param attributeIndex indice di colonna di un attributo continuo
+	 * @return valore numerico memorizzato nella colonna
+	 */
+	double getContinuousValue(int exampleIndex, int attributeIndex)
+	{
+		return continuousColumns[attributeIndex][exampleIndex];
+	}
+	
+	/**
+	 * Restituisce l'indice, nel dominio dell'attributo discreto in posizione attributeIndex,
+	 * del valore assunto nella riga exampleIndex.
+	 * 
+	 * @param exampleIndex indice di riga
+	 * @param attributeIndex indice di colonna di un attributo discreto
+	 * @return indice del valore nel dominio dell'attributo
+	 */
+	int getDiscreteValue(int exampleIndex, int attributeIndex)
+	{
+		return discreteColumns[attributeIndex][exampleIndex];
 	}
 
+	/**
+	 * Sceglie casualmente k righe distinte da utilizzare come centroidi iniziali.
+	 * Equivale a sampling(k, SAMPLING_TYPE.RANDOM, System.currentTimeMillis()).
+	 * 
+	 * @param k numero di centroidi da scegliere
+	 * @return indici delle righe scelte
+	 * @throws OutOfRangeSampleSize se k e' 0 o maggiore del numero di righe
+	 */
 	public int[] sampling(int k) throws OutOfRangeSampleSize
 	{
-
-		if(k > data.size() || k == 0) {
+		return sampling(k, SAMPLING_TYPE.RANDOM, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Sceglie k righe da utilizzare come centroidi iniziali secondo la strategia specificata.
+	 * A parita' di seme la scelta e' sempre la stessa.
+	 * 
+	 * @param k numero di centroidi da scegliere
+	 * @param type strategia di scelta
+	 * @param seed seme del generatore di numeri casuali
+	 * @return indici delle righe scelte
+	 * @throws OutOfRangeSampleSize se k e' 0, maggiore del numero di righe o (per
+	 *         KMEANS_PLUS_PLUS e KMEANS_PARALLEL) maggiore del numero di righe distinte
+	 */
+	public int[] sampling(int k, SAMPLING_TYPE type, long seed) throws OutOfRangeSampleSize
+	{
+		if(k > numberOfExamples || k == 0) {
 			throw new OutOfRangeSampleSize();
-		}	
+		}
+		Random rand = new Random(seed);
+		switch(type) {
+		case KMEANS_PLUS_PLUS:
+			return kMeansPlusPlus(k, rand);
+		case KMEANS_PARALLEL:
+			return kMeansParallel(k, rand);
+		default:
+			return randomSampling(k, rand);
+		}
+	}
+	
+	/**
+	 * Sceglie in modo uniforme k righe con valori distinti.
+	 * 
+	 * @param k numero di centroidi da scegliere
+	 * @param rand generatore di numeri casuali
+	 * @return indici delle righe scelte
+	 */
+	private int[] randomSampling(int k, Random rand)
+	{
 		int centroidIndexes[] = new int[k];
-		Random rand = new Random();
-		rand.setSeed(System.currentTimeMillis());
 		for(int i = 0; i < k; i++) {
 			boolean found = false;
 			int c;
@@ -161,6 +637,213 @@ public class Data implements Serializable {
 		return centroidIndexes;
 	}
 	
+	/**
+	 * Sceglie k centroidi con la strategia k-means++: la prima riga e' scelta in modo
+	 * uniforme, ogni riga successiva con probabilita' proporzionale al quadrato della
+	 * distanza ({@link Tuple#getDistance(Tuple)}) dal centroide gia' scelto piu' vicino,
+	 * moltiplicato per il peso della riga.
+	 * 
+	 * @param k numero di centroidi da scegliere
+	 * @param rand generatore di numeri casuali
+	 * @return indici delle righe scelte
+	 * @throws OutOfRangeSampleSize se le righe distinte sono meno di k
+	 */
+	private int[] kMeansPlusPlus(int k, Random rand) throws OutOfRangeSampleSize
+	{
+		int centroidIndexes[] = new int[k];
+		double weights[] = new double[numberOfExamples];
+		for(int i = 0; i < numberOfExamples; i++)
+			weights[i] = getWeight(i);
+		double squaredDistances[] = new double[numberOfExamples];
+		Arrays.fill(squaredDistances, Double.POSITIVE_INFINITY);
+		int rows[] = new int[numberOfExamples];
+		for(int i = 0; i < numberOfExamples; i++)
+			rows[i] = i;
+		centroidIndexes[0] = firstCentroid(rand);
+		for(int c = 1; c < k; c++) {
+			updateSquaredDistances(rows, squaredDistances, null, Arrays.copyOfRange(centroidIndexes, c - 1, c), c - 1);
+			centroidIndexes[c] = rows[pick(weights, squaredDistances, rand)];
+		}
+		return centroidIndexes;
+	}
+	
+	/**
+	 * Sceglie k centroidi con la strategia k-means||: a partire da una riga scelta in modo
+	 * uniforme, per un numero fissato di passate ogni riga viene aggiunta ai candidati in modo
+	 * indipendente con probabilita' proporzionale al quadrato della distanza dal candidato piu'
+	 * vicino per il peso della riga (sovracampionamento di 2k righe attese per passata). Ogni
+	 * candidato riceve come peso la somma dei pesi delle righe di cui e' il candidato piu'
+	 * vicino e i k centroidi sono scelti tra
+	 * i candidati con k-means++ pesato. Rispetto a k-means++ richiede poche passate sulla
+	 * tabella anziche' k: in ogni passata le distanze dai nuovi candidati sono calcolate
+	 * insieme, in parallelo sulle righe.
+	 * 
+	 * @param k numero di centroidi da scegliere
+	 * @param rand generatore di numeri casuali
+	 * @return indici delle righe scelte
+	 * @throws OutOfRangeSampleSize se le righe distinte sono meno di k
+	 */
+	private int[] kMeansParallel(int k, Random rand) throws OutOfRangeSampleSize
+	{
+		final int rounds = 5;
+		double oversampling = 2.0 * k;
+		int rows[] = new int[numberOfExamples];
+		for(int i = 0; i < numberOfExamples; i++)
+			rows[i] = i;
+		double squaredDistances[] = new double[numberOfExamples];
+		Arrays.fill(squaredDistances, Double.POSITIVE_INFINITY);
+		int owners[] = new int[numberOfExamples];
+		List<Integer> candidates = new ArrayList<Integer>();
+		candidates.add(firstCentroid(rand));
+		int updated = 0;
+		for(int round = 0; round < rounds; round++) {
+			updated = updateSquaredDistances(rows, squaredDistances, owners, candidates, updated);
+			double total = 0;
+			for(int i = 0; i < numberOfExamples; i++)
+				total += getWeight(i) * squaredDistances[i];
+			if(total == 0)
+				break;
+			for(int i = 0; i < numberOfExamples; i++) {
+				if(squaredDistances[i] > 0 && rand.nextDouble() < oversampling * getWeight(i) * squaredDistances[i] / total)
+					candidates.add(i);
+			}
+		}
+		updateSquaredDistances(rows, squaredDistances, owners, candidates, updated);
+		
+		int candidateRows[] = new int[candidates.size()];
+		double weights[] = new double[candidates.size()];
+		for(int c = 0; c < candidateRows.length; c++)
+			candidateRows[c] = candidates.get(c);
+		for(int i = 0; i < numberOfExamples; i++)
+			weights[owners[i]] += getWeight(i);
+		//candidati uguali a uno precedente non sono il piu' vicino di alcuna riga e hanno
+		//peso nullo: se i candidati utilizzabili sono meno di k si ripiega su k-means++
+		int usable = 0;
+		for(int c = 0; c < weights.length; c++) {
+			if(weights[c] > 0)
+				usable++;
+		}
+		if(usable < k)
+			return kMeansPlusPlus(k, rand);
+		double candidateDistances[] = new double[candidateRows.length];
+		Arrays.fill(candidateDistances, Double.POSITIVE_INFINITY);
+		int centroidIndexes[] = new int[k];
+		centroidIndexes[0] = candidateRows[pick(weights, candidateDistances, rand)];
+		for(int c = 1; c < k; c++) {
+			updateSquaredDistances(candidateRows, candidateDistances, null, Arrays.copyOfRange(centroidIndexes, c - 1, c), c - 1);
+			centroidIndexes[c] = candidateRows[pick(weights, candidateDistances, rand)];
+		}
+		return centroidIndexes;
+	}
+	
+	/**
+	 * Sceglie la prima riga di k-means++ e k-means||: in modo uniforme, o con probabilita'
+	 * proporzionale al peso se la tabella e' pesata.
+	 * 
+	 * @param rand generatore di numeri casuali
+	 * @return indice della riga scelta
+	 */
+	private int firstCentroid(Random rand)
+	{
+		if(weights == null)
+			return rand.nextInt(numberOfExamples);
+		long target = (long) (rand.nextDouble() * getTotalWeight());
+		int i = 0;
+		while(i < numberOfExamples - 1 && (target -= weights[i]) >= 0)
+			i++;
+		return i;
+	}
+	
+	/**
+	 * Aggiorna i quadrati delle distanze tenendo conto dei candidati in candidates
+	 * a partire dalla posizione first.
+	 * 
+	 * @param rows indici delle righe da aggiornare
+	 * @param squaredDistances quadrati delle distanze, paralleli a rows
+	 * @param owners per ogni riga in rows la posizione in candidates del candidato piu' vicino
+	 * @param candidates indici di riga dei candidati
+	 * @param first posizione del primo candidato non ancora considerato
+	 * @return numero di candidati considerati
+	 */
+	private int updateSquaredDistances(int rows[], double squaredDistances[], int owners[], List<Integer> candidates, int first)
+	{
+		int centroids[] = new int[candidates.size() - first];
+		for(int c = 0; c < centroids.length; c++)
+			centroids[c] = candidates.get(first + c);
+		updateSquaredDistances(rows, squaredDistances, owners, centroids, first);
+		return candidates.size();
+	}
+	
+	/**
+	 * Aggiorna, per ciascuna riga in rows, il quadrato della distanza dal centroide piu'
+	 * vicino tenendo conto dei nuovi centroidi in centroids. Le righe sono elaborate in
+	 * parallelo, ciascuna in modo indipendente.
+	 * 
+	 * @param rows indici delle righe da aggiornare
+	 * @param squaredDistances quadrati delle distanze, paralleli a rows
+	 * @param owners se non null, per ogni riga in rows l'ordinale del centroide piu' vicino
+	 * @param centroids indici di riga dei nuovi centroidi
+	 * @param firstOrdinal ordinale del primo dei nuovi centroidi
+	 */
+	private void updateSquaredDistances(final int rows[], final double squaredDistances[], final int owners[], int centroids[], final int firstOrdinal)
+	{
+		final Tuple tuples[] = new Tuple[centroids.length];
+		for(int c = 0; c < centroids.length; c++)
+			tuples[c] = getItemSet(centroids[c]);
+		IntStream.range(0, rows.length).parallel().forEach(i -> {
+			for(int c = 0; c < tuples.length; c++) {
+				double distance = tuples[c].getDistance(this, rows[i]);
+				if(distance * distance < squaredDistances[i]) {
+					squaredDistances[i] = distance * distance;
+					if(owners != null)
+						owners[i] = firstOrdinal + c;
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Estrae una posizione con probabilita' proporzionale a weights[i]*squaredDistances[i]
+	 * (campionamento D^2). Le distanze infinite (nessun centroide ancora scelto) valgono 1.
+	 * 
+	 * @param weights pesi delle posizioni
+	 * @param squaredDistances quadrati delle distanze dal centroide piu' vicino
+	 * @param rand generatore di numeri casuali
+	 * @return posizione estratta
+	 * @throws OutOfRangeSampleSize se tutte le posizioni hanno probabilita' nulla
+	 */
+	private static int pick(double weights[], double squaredDistances[], Random rand) throws OutOfRangeSampleSize
+	{
+		double total = 0;
+		for(int i = 0; i < weights.length; i++)
+			total += weights[i] * score(squaredDistances[i]);
+		if(!(total > 0))
+			throw new OutOfRangeSampleSize();
+		double threshold = rand.nextDouble() * total;
+		int last = -1;
+		for(int i = 0; i < weights.length; i++) {
+			double p = weights[i] * score(squaredDistances[i]);
+			if(p > 0) {
+				last = i;
+				threshold -= p;
+				if(threshold < 0)
+					return i;
+			}
+		}
+		return last;
+	}
+	
+	/**
+	 * Restituisce il contributo di una distanza al campionamento D^2.
+	 * 
+	 * @param squaredDistance quadrato della distanza, infinito se non ancora calcolata
+	 * @return squaredDistance, o 1 se infinita
+	 */
+	private static double score(double squaredDistance)
+	{
+		return squaredDistance == Double.POSITIVE_INFINITY ? 1 : squaredDistance;
+	}
+	
 	/**
 	 * Restituisce vero se le due righe di data contengono gli stessi valori, falso
 	 * altrimenti
@@ -175,7 +858,10 @@ public class Data implements Serializable {
 	{
 		boolean equals = true;
 		for(int k = 0; k < getNumberOfAttributes(); k++ ) {
-			if(!getAttributeValue(i,k).equals(getAttributeValue(j,k))) {
+			boolean same = discreteColumns[k] != null 
+					? discreteColumns[k][i] == discreteColumns[k][j] 
+					: continuousColumns[k][i] == continuousColumns[k][j];
+			if(!same) {
 				equals = false;
 				break;
 			}
@@ -184,67 +870,71 @@ public class Data implements Serializable {
 	}
 
 	/**
-	 * Restituisce computePrototype(idList, (DiscreteAttribute)attribute)
+	 * Restituisce computePrototype(statistics, (DiscreteAttribute)attribute)
 	 * 
-	 * @param clusteredData
-	 *            insieme di indici di riga
+	 * @param statistics
+	 *            statistiche sufficienti dell'insieme di righe del cluster
 	 * @param attribute
 	 *            attributo rispetto al quale calcolare il prototipo (centroide)
 	 * @return valore centroide rispetto ad attribute
 	 */
-	Object computePrototype(Set<Integer> idList, Attribute attribute)
+	static Object computePrototype(ClusterStatistics statistics, Attribute attribute)
 	{
 		if(attribute instanceof DiscreteAttribute)
-			return computePrototype(idList,(DiscreteAttribute) attribute);
+			return computePrototype(statistics,(DiscreteAttribute) attribute);
 		else if(attribute instanceof ContinuosAttribute)
-		    return computePrototype(idList, (ContinuosAttribute) attribute);
+		    return computePrototype(statistics, (ContinuosAttribute) attribute);
 		
 		return null;
 	}
 
 	/**
 	 * Determina il valore che occorre piu' frequentemente per attribute nel
-	 * sottoinsieme di dati individuato da idList facendo uso del metodo
+	 * sottoinsieme di dati descritto da statistics facendo uso del metodo
 	 * frequency di DiscretAttribute
 	 * 
-	 * @param idList
-	 *            insieme degli indici delle righe di data appartenenti ad un
-	 *            cluster
+	 * @param statistics
+	 *            statistiche sufficienti dell'insieme di righe di data appartenenti 
+	 *            ad un cluster
 	 * @param attribute
 	 *            attributo discreto rispetto al quale calcolare il
 	 *            prototipo(centroide)
 	 * @return centroide rispetto ad attribute
 	 */
-	private String computePrototype(Set<Integer> idList, DiscreteAttribute attribute)
+	private static String computePrototype(ClusterStatistics statistics, DiscreteAttribute attribute)
 	{
 		Iterator<String> iter = attribute.iterator();
 		String elem = iter.next();
-		int currentFrequecy = attribute.frequency(this, idList, elem);
+		int currentFrequecy = attribute.frequency(statistics, elem);
 		String nomeAttributo=elem;
 		while(iter.hasNext())//for(int i=1;i<attribute.getNumberOfDistinctValues();i++)
 		{
 			elem= iter.next();
-			if(attribute.frequency(this, idList, elem)>currentFrequecy)
+			int frequency = attribute.frequency(statistics, elem);
+			if(frequency>currentFrequecy)
 			{
-				currentFrequecy=attribute.frequency(this, idList, elem);
+				currentFrequecy=frequency;
 				nomeAttributo=elem;
 			}
 		}
 		return nomeAttributo;
 	}
 	
-	Double computePrototype(Set<Integer> idList, ContinuosAttribute attribute)
+	/**
+	 * Determina la media dei valori di attribute nel sottoinsieme di dati descritto
+	 * da statistics.
+	 * 
+	 * @param statistics
+	 *            statistiche sufficienti dell'insieme di righe di data appartenenti 
+	 *            ad un cluster
+	 * @param attribute
+	 *            attributo continuo rispetto al quale calcolare il
+	 *            prototipo(centroide)
+	 * @return centroide rispetto ad attribute
+	 */
+	static Double computePrototype(ClusterStatistics statistics, ContinuosAttribute attribute)
 	{
-		double total=0.0;
-		int numberOfValue=0;
-		
-		for(int i=0;i<getNumberOfExamples();i++)
-			if(idList.contains(i))
-			{
-				total+=(Double) getAttributeValue(i, attribute.getIndex());
-				numberOfValue++;
-			}
-		return total/numberOfValue;
+		return statistics.getSum(attribute.getIndex())/statistics.getSize();
 	}
 
 	public String toString()
@@ -273,9 +963,9 @@ public class Data implements Serializable {
 		Tuple tuple=new Tuple(explanatorySet.size());
 		for(int i=0;i<explanatorySet.size();i++)
 			if(explanatorySet.get(i) instanceof DiscreteAttribute)
-				tuple.add(new DiscreteItem(explanatorySet.get(i), (String)data.get(index).get(i)), i);
+				tuple.add(new DiscreteItem(explanatorySet.get(i), ((DiscreteAttribute)explanatorySet.get(i)).getValue(discreteColumns[i][index])), i);
 			else if (explanatorySet.get(i) instanceof ContinuosAttribute)
-				tuple.add(new ContinuosItem(explanatorySet.get(i), (Double)data.get(index).get(i)), i);
+				tuple.add(new ContinuosItem(explanatorySet.get(i), continuousColumns[i][index]), i);
 
 		return tuple;
 	}
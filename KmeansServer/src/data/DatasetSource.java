@@ -0,0 +1,54 @@
+package data;
+
+import java.util.List;
+
+/**
+ * Interfaccia che modella una sorgente di transazioni memorizzate per colonne, da cui
+ * costruire un oggetto {@link Data} senza accedere alla base di dati
+ * (si veda {@link Data#Data(DatasetSource)}).
+ * Le colonne restituite sono utilizzate direttamente da {@link Data}, senza copia, e non
+ * devono essere modificate successivamente.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public interface DatasetSource {
+
+	/**
+	 * Ritorna lo schema degli attributi: l'attributo in posizione j deve avere indice j.
+	 * 
+	 * @return Lista degli attributi
+	 */
+	List<Attribute> getAttributeSchema();
+
+	/**
+	 * Ritorna il numero di transazioni.
+	 * 
+	 * @return numero di righe
+	 */
+	int getNumberOfExamples();
+
+	/**
+	 * Ritorna i valori dell'attributo continuo in posizione attributeIndex.
+	 * 
+	 * @param attributeIndex Indice di un attributo continuo dello schema
+	 * @return un valore per ciascuna transazione
+	 */
+	double[] getContinuousColumn(int attributeIndex);
+
+	/**
+	 * Ritorna i valori dell'attributo discreto in posizione attributeIndex, come posizioni
+	 * nel dominio ordinato dell'attributo (si veda {@link DiscreteAttribute#getValue(int)}).
+	 * 
+	 * @param attributeIndex Indice di un attributo discreto dello schema
+	 * @return un codice per ciascuna transazione
+	 */
+	int[] getDiscreteColumn(int attributeIndex);
+
+	/**
+	 * Ritorna il peso di ciascuna transazione, ovvero il numero di righe della tabella
+	 * originale che essa rappresenta (si veda {@link Data#getWeight(int)}).
+	 * 
+	 * @return un peso (almeno 1) per ciascuna transazione, null se ogni transazione vale 1
+	 */
+	int[] getWeights();
+}
@@ -1,8 +1,10 @@
 package data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Set;
 import java.util.TreeSet;
 
 /**
@@ -12,14 +14,27 @@ import java.util.TreeSet;
  * 
  * @author Veronico, Mazzone, Sgaramella
  */
-@SuppressWarnings("serial")
 public class DiscreteAttribute extends Attribute implements Iterable<String>,Serializable{
 
+	/**
+	 * Identificativo di versione calcolato sulla classe originale, mantenuto in modo che
+	 * i modelli salvati con la serializzazione Java possano ancora essere letti.
+	 */
+	private static final long serialVersionUID = 2937878947283768728L;
+
 	/**
 	 * TreeSet di oggetti String, uno per ciascun valore del dominio discreto.
 	 * I valori del dominio sono univoci e sono ordinati seguendo un ordine lessicografico.
 	 */
 	private TreeSet<String> values;
+	
+	/**
+	 * Valori del dominio nello stesso ordine lessicografico di {@link #values}.
+	 * La posizione di un valore nell'array e' il codice con cui il valore viene 
+	 * memorizzato nelle colonne di {@link Data}.
+	 * Non viene salvato su file: e' ricostruito da {@link #values} alla lettura.
+	 */
+	private transient String[] dictionary;
 
 	/**
 	 * Il costruttore invoca anzitutto il costruttore della classe madre e inizializza 
@@ -39,6 +54,7 @@ public class DiscreteAttribute extends Attribute implements Iterable<String>,Ser
 		{
 			this.values.add(values[i]);
 		}
+		this.dictionary = this.values.toArray(new String[this.values.size()]);
 	}
 
 
@@ -52,24 +68,48 @@ public class DiscreteAttribute extends Attribute implements Iterable<String>,Ser
 	}
 
 	/**
-	 * Determina il numero di volte che il valore v compare in corrispondenza dell'attributo corrente (indice di colonna) negli esempi memorizzati in data e indicizzate (per riga) da idList
-	 * @param data oggetto
-	 * @param idList oggetto che mantiene l'insieme degli indici di riga di alcune tuple memorizzate in data
+	 * Restituisce il codice (posizione nel dominio ordinato) del valore v.
+	 * 
+	 * @param v valore discreto appartenente al dominio dell'attributo
+	 * @return codice del valore, negativo se v non appartiene al dominio
+	 */
+	int indexOf(String v)
+	{
+		return Arrays.binarySearch(dictionary, v);
+	}
+	
+	/**
+	 * Restituisce il valore del dominio associato al codice specificato.
+	 * 
+	 * @param code codice del valore (si veda {@link #indexOf(String)})
+	 * @return valore discreto corrispondente al codice
+	 */
+	String getValue(int code)
+	{
+		return dictionary[code];
+	}
+
+	/**
+	 * Determina il numero di volte che il valore v compare in corrispondenza dell'attributo corrente (indice di colonna) negli esempi descritti da statistics
+	 * @param statistics statistiche sufficienti dell'insieme di righe di alcune tuple memorizzate in data
 	 * @param v valore discreto
 	 * @return Numero di occorrenze del valore discreto
 	 */
-	public int frequency(Data data, Set<Integer> idList, String v)
+	public int frequency(ClusterStatistics statistics, String v)
 	{
-		int occ=0;
-		for(int i=0;i<data.getNumberOfExamples();i++)
-			if(idList.contains(i))
-				for(int j=0; j<data.getNumberOfAttributes();j++)
-					if(data.getAttributeValue(i, j).equals(v))
-						occ++;
-		return occ;
+		return statistics.getCount(getIndex(), indexOf(v));
 	}
 	@Override
 	public Iterator<String> iterator() {
 		return values.iterator();
 	}
+
+	/**
+	 * Legge l'attributo serializzato e ricostruisce {@link #dictionary} dai valori del dominio.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		dictionary = values.toArray(new String[values.size()]);
+	}
 }
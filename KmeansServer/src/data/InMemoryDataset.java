@@ -0,0 +1,214 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe permette di costruire riga per riga una sorgente di transazioni in memoria
+ * (si veda {@link DatasetSource}): si dichiarano anzitutto gli attributi, nell'ordine delle
+ * colonne, e si aggiungono poi le transazioni con {@link #addExample(Object...)}.
+ * Gli estremi degli attributi continui e i domini di quelli discreti sono ricavati dai
+ * valori inseriti.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class InMemoryDataset implements DatasetSource {
+
+	/**
+	 * Nomi degli attributi, nell'ordine delle colonne.
+	 */
+	private List<String> names = new ArrayList<String>();
+
+	/**
+	 * Per ciascun attributo indica se e' continuo.
+	 */
+	private List<Boolean> continuous = new ArrayList<Boolean>();
+
+	/**
+	 * Valori degli attributi continui (null per quelli discreti), con capacita' eventualmente
+	 * maggiore del numero di righe.
+	 */
+	private double continuousColumns[][];
+
+	/**
+	 * Codici provvisori (in ordine di inserimento) degli attributi discreti (null per quelli
+	 * continui), con capacita' eventualmente maggiore del numero di righe.
+	 */
+	private int discreteColumns[][];
+
+	/**
+	 * Per ciascun attributo discreto associa ogni valore al suo codice provvisorio.
+	 */
+	private List<Map<String, Integer>> codes = new ArrayList<Map<String, Integer>>();
+
+	/**
+	 * Per ciascun attributo discreto elenca i valori in ordine di inserimento.
+	 */
+	private List<List<String>> values = new ArrayList<List<String>>();
+
+	/**
+	 * Peso di ciascuna transazione, null finche' tutte le transazioni valgono 1.
+	 */
+	private int weights[];
+
+	private int numberOfExamples;
+
+	/**
+	 * Dichiara un attributo continuo come colonna successiva.
+	 * 
+	 * @param name Nome dell'attributo
+	 */
+	public void addContinuousAttribute(String name)
+	{
+		addAttribute(name, true);
+	}
+
+	/**
+	 * Dichiara un attributo discreto come colonna successiva.
+	 * 
+	 * @param name Nome dell'attributo
+	 */
+	public void addDiscreteAttribute(String name)
+	{
+		addAttribute(name, false);
+	}
+
+	private void addAttribute(String name, boolean isContinuous)
+	{
+		if(numberOfExamples > 0)
+			throw new IllegalStateException("attributi dichiarati dopo le transazioni");
+		names.add(name);
+		continuous.add(isContinuous);
+		codes.add(isContinuous ? null : new HashMap<String, Integer>());
+		values.add(isContinuous ? null : new ArrayList<String>());
+	}
+
+	/**
+	 * Aggiunge una transazione.
+	 * 
+	 * @param example Un valore per ciascun attributo: un {@link Number} per gli attributi
+	 * 		  continui e una {@link String} per quelli discreti
+	 */
+	public void addExample(Object... example)
+	{
+		addWeightedExample(1, example);
+	}
+
+	/**
+	 * Aggiunge una transazione che rappresenta weight righe uguali (si veda
+	 * {@link DatasetSource#getWeights()}).
+	 * 
+	 * @param weight Numero di righe rappresentate dalla transazione (almeno 1)
+	 * @param example Un valore per ciascun attributo (si veda {@link #addExample(Object...)})
+	 */
+	public void addWeightedExample(int weight, Object... example)
+	{
+		if(weight < 1)
+			throw new IllegalArgumentException("peso non valido: " + weight);
+		if(example.length != names.size())
+			throw new IllegalArgumentException("attesi " + names.size() + " valori, ricevuti " + example.length);
+		if(continuousColumns == null) {
+			continuousColumns = new double[names.size()][];
+			discreteColumns = new int[names.size()][];
+		}
+		for(int j = 0; j < example.length; j++) {
+			if(continuous.get(j) ? !(example[j] instanceof Number) : !(example[j] instanceof String))
+				throw new IllegalArgumentException("valore non valido per " + names.get(j) + ": " + example[j]);
+		}
+		for(int j = 0; j < example.length; j++) {
+			if(continuous.get(j)) {
+				continuousColumns[j] = grow(continuousColumns[j]);
+				continuousColumns[j][numberOfExamples] = ((Number) example[j]).doubleValue();
+			} else {
+				Integer code = codes.get(j).get(example[j]);
+				if(code == null) {
+					code = values.get(j).size();
+					codes.get(j).put((String) example[j], code);
+					values.get(j).add((String) example[j]);
+				}
+				discreteColumns[j] = grow(discreteColumns[j]);
+				discreteColumns[j][numberOfExamples] = code;
+			}
+		}
+		if(weight != 1 && weights == null) {
+			weights = new int[Math.max(16, numberOfExamples + 1)];
+			Arrays.fill(weights, 0, numberOfExamples, 1);
+		}
+		if(weights != null) {
+			weights = grow(weights);
+			weights[numberOfExamples] = weight;
+		}
+		numberOfExamples++;
+	}
+
+	private double[] grow(double column[])
+	{
+		if(column == null)
+			return new double[16];
+		return column.length > numberOfExamples ? column : Arrays.copyOf(column, column.length * 2);
+	}
+
+	private int[] grow(int column[])
+	{
+		if(column == null)
+			return new int[16];
+		return column.length > numberOfExamples ? column : Arrays.copyOf(column, column.length * 2);
+	}
+
+	public List<Attribute> getAttributeSchema()
+	{
+		List<Attribute> schema = new ArrayList<Attribute>();
+		for(int j = 0; j < names.size(); j++) {
+			if(continuous.get(j)) {
+				double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+				for(int i = 0; i < numberOfExamples; i++) {
+					min = Math.min(min, continuousColumns[j][i]);
+					max = Math.max(max, continuousColumns[j][i]);
+				}
+				schema.add(new ContinuosAttribute(names.get(j), j, min, max));
+			} else {
+				schema.add(new DiscreteAttribute(names.get(j), j, values.get(j).toArray(new String[values.get(j).size()])));
+			}
+		}
+		return schema;
+	}
+
+	public int getNumberOfExamples()
+	{
+		return numberOfExamples;
+	}
+
+	public double[] getContinuousColumn(int attributeIndex)
+	{
+		if(numberOfExamples == 0)
+			return new double[0];
+		return Arrays.copyOf(continuousColumns[attributeIndex], numberOfExamples);
+	}
+
+	/**
+	 * Ritorna i codici dell'attributo discreto, convertendo i codici provvisori nelle
+	 * posizioni dei valori nel dominio ordinato.
+	 */
+	public int[] getDiscreteColumn(int attributeIndex)
+	{
+		if(numberOfExamples == 0)
+			return new int[0];
+		String sorted[] = values.get(attributeIndex).toArray(new String[values.get(attributeIndex).size()]);
+		Arrays.sort(sorted);
+		int rank[] = new int[sorted.length];
+		for(int code = 0; code < rank.length; code++)
+			rank[code] = Arrays.binarySearch(sorted, values.get(attributeIndex).get(code));
+		int column[] = new int[numberOfExamples];
+		for(int i = 0; i < numberOfExamples; i++)
+			column[i] = rank[discreteColumns[attributeIndex][i]];
+		return column;
+	}
+
+	public int[] getWeights()
+	{
+		return weights == null ? null : Arrays.copyOf(weights, numberOfExamples);
+	}
+}
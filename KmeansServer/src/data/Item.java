@@ -1,7 +1,6 @@
 package data;
 
 import java.io.Serializable;
-import java.util.Set;
 
 /**
  * La classe astratta Item modella un generico item (coppia attributo-valore)
@@ -9,9 +8,14 @@ import java.util.Set;
  * @author Veronico, Mazzone, Sgaramella
  *
  */
-@SuppressWarnings("serial")
 public abstract class Item implements Serializable
 {
+	/**
+	 * Identificativo di versione calcolato sulla classe originale, mantenuto in modo che
+	 * i cluster salvati con la serializzazione Java possano ancora essere letti.
+	 */
+	private static final long serialVersionUID = -2007116047426276462L;
+	
 	/**
 	 * Attributo coinvolto nell'item
 	 */
@@ -76,13 +80,12 @@ public abstract class Item implements Serializable
 	
 	/**
 	 * Il metodo modifica il membro value, assegnandogli il valore
-	 * restituito da {@link Data#computePrototype(Set, Attribute)}
+	 * restituito da {@link Data#computePrototype(ClusterStatistics, Attribute)}
 	 * 
-	 * @param data Riferimento ad un oggetto della classe Data
-	 * @param clusteredData Insieme di indici delle righe della matrice in data che formano il cluster
+	 * @param statistics Statistiche sufficienti delle righe della matrice in data che formano il cluster
 	 */
-	public void update(Data data, Set<Integer> clusteredData)
+	public void update(ClusterStatistics statistics)
 	{
-		value=data.computePrototype(clusteredData,attribute);
+		value=Data.computePrototype(statistics,attribute);
 	}
 }
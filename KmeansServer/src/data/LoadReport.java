@@ -0,0 +1,57 @@
+package data;
+
+import java.io.Serializable;
+
+/**
+ * La classe riporta l'esito della lettura di una tabella dalla base di dati
+ * (si veda {@link Data#Data(String, int)}): righe lette, byte letti e tempo impiegato.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class LoadReport implements Serializable {
+
+	private long rows;
+
+	/**
+	 * Byte letti (stima: 8 per ciascun valore numerico e la lunghezza di ciascuna stringa).
+	 */
+	private long bytes;
+
+	private long elapsedMillis;
+
+	LoadReport(long rows, long bytes, long elapsedMillis)
+	{
+		this.rows = rows;
+		this.bytes = bytes;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public long getRows()
+	{
+		return rows;
+	}
+
+	public long getBytes()
+	{
+		return bytes;
+	}
+
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	/**
+	 * @return righe lette al secondo
+	 */
+	public double getRowsPerSecond()
+	{
+		return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+	}
+
+	public String toString()
+	{
+		return "righe=" + rows + " byte=" + bytes + " ms=" + elapsedMillis + " righe/s=" + Math.round(getRowsPerSecond());
+	}
+}
@@ -0,0 +1,202 @@
+package data;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe codifica in formato binario lo schema degli attributi e le tuple centroide,
+ * per il salvataggio dei cluster scoperti (si veda {@link mining.KMeansMiner#salva(String)}).
+ * La scrittura avviene su un {@link DataOutputStream}, la lettura da un {@link ByteBuffer}
+ * (tipicamente ottenuto mappando il file in memoria); entrambi usano l'ordine dei byte
+ * big-endian.
+ * Lo schema e' scritto come numero di attributi seguito, per ciascun attributo, da tipo
+ * (byte {@link #CONTINUOUS} o {@link #DISCRETE}), nome, indice e dominio: estremi (due
+ * double) per gli attributi continui, numero di valori e valori ordinati per quelli discreti.
+ * Una tupla e' scritta come sequenza dei valori: un double per ciascun attributo continuo e
+ * il codice del valore nel dominio (int) per ciascun attributo discreto.
+ * Le stringhe sono scritte come lunghezza in byte (int) seguita dalla codifica UTF-8.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public final class ModelCodec {
+
+	/**
+	 * Tipo di un attributo continuo nello schema.
+	 */
+	private static final byte CONTINUOUS = 0;
+
+	/**
+	 * Tipo di un attributo discreto nello schema.
+	 */
+	private static final byte DISCRETE = 1;
+
+	private ModelCodec()
+	{
+	}
+
+	/**
+	 * Scrive lo schema degli attributi della tupla specificata.
+	 * 
+	 * @param out Destinazione
+	 * @param tuple Tupla i cui item fanno riferimento agli attributi dello schema
+	 * @throws IOException
+	 */
+	public static void writeSchema(DataOutputStream out, Tuple tuple) throws IOException
+	{
+		out.writeInt(tuple.getLength());
+		for(int j = 0; j < tuple.getLength(); j++) {
+			Attribute attribute = tuple.get(j).getAttribute();
+			if(attribute instanceof ContinuosAttribute) {
+				out.writeByte(CONTINUOUS);
+				writeString(out, attribute.getName());
+				out.writeInt(attribute.getIndex());
+				out.writeDouble(((ContinuosAttribute) attribute).getMin());
+				out.writeDouble(((ContinuosAttribute) attribute).getMax());
+			} else {
+				DiscreteAttribute discrete = (DiscreteAttribute) attribute;
+				out.writeByte(DISCRETE);
+				writeString(out, attribute.getName());
+				out.writeInt(attribute.getIndex());
+				out.writeInt(discrete.getNumberOfDistinctValues());
+				for(String value : discrete)
+					writeString(out, value);
+			}
+		}
+	}
+
+	/**
+	 * Legge uno schema scritto con {@link #writeSchema(DataOutputStream, Tuple)}.
+	 * 
+	 * @param in Sorgente, posizionata all'inizio dello schema
+	 * @return Lista degli attributi, nell'ordine delle colonne
+	 * @throws IOException se lo schema non e' valido
+	 */
+	public static List<Attribute> readSchema(ByteBuffer in) throws IOException
+	{
+		int numberOfAttributes = in.getInt();
+		//ogni attributo occupa almeno 9 byte: tipo, lunghezza del nome e indice
+		if(numberOfAttributes < 0 || numberOfAttributes > in.remaining() / 9)
+			throw new IOException("numero di attributi non valido: " + numberOfAttributes);
+		List<Attribute> schema = new ArrayList<Attribute>(numberOfAttributes);
+		for(int j = 0; j < numberOfAttributes; j++) {
+			byte type = in.get();
+			String name = readString(in);
+			int index = in.getInt();
+			if(type == CONTINUOUS) {
+				double min = in.getDouble();
+				double max = in.getDouble();
+				schema.add(new ContinuosAttribute(name, index, min, max));
+			} else if(type == DISCRETE) {
+				int numberOfValues = in.getInt();
+				//ogni valore occupa almeno i 4 byte della lunghezza
+				if(numberOfValues < 0 || numberOfValues > in.remaining() / 4)
+					throw new IOException("numero di valori non valido per " + name + ": " + numberOfValues);
+				String values[] = new String[numberOfValues];
+				for(int v = 0; v < values.length; v++)
+					values[v] = readString(in);
+				schema.add(new DiscreteAttribute(name, index, values));
+			} else {
+				throw new IOException("tipo di attributo non valido: " + type);
+			}
+		}
+		return schema;
+	}
+
+	/**
+	 * Legge uno schema scritto con {@link #writeSchema(DataOutputStream, Tuple)} e verifica
+	 * che coincida con quello di data: stesso numero di attributi e, per ciascuno, stesso
+	 * nome, tipo e (per gli attributi discreti) stesso dominio. Le tuple lette con lo schema
+	 * ritornato fanno riferimento agli attributi di data.
+	 * 
+	 * @param in Sorgente, posizionata all'inizio dello schema
+	 * @param data Tabella a cui lo schema deve corrispondere
+	 * @return Schema degli attributi di data
+	 * @throws IOException se lo schema non e' valido o non corrisponde a quello di data
+	 */
+	public static List<Attribute> readSchema(ByteBuffer in, Data data) throws IOException
+	{
+		List<Attribute> saved = readSchema(in);
+		List<Attribute> schema = data.getAttributeSchema();
+		if(saved.size() != schema.size())
+			throw new IOException("numero di attributi diverso: " + saved.size() + " anziche' " + schema.size());
+		for(int j = 0; j < schema.size(); j++) {
+			Attribute expected = schema.get(j);
+			Attribute attribute = saved.get(j);
+			boolean same = attribute.getName().equals(expected.getName()) && attribute.getClass() == expected.getClass();
+			if(same && expected instanceof DiscreteAttribute) {
+				DiscreteAttribute discrete = (DiscreteAttribute) attribute;
+				same = discrete.getNumberOfDistinctValues() == ((DiscreteAttribute) expected).getNumberOfDistinctValues();
+				for(int v = 0; same && v < discrete.getNumberOfDistinctValues(); v++)
+					same = discrete.getValue(v).equals(((DiscreteAttribute) expected).getValue(v));
+			}
+			if(!same)
+				throw new IOException("attributo " + attribute + " diverso da " + expected);
+		}
+		return schema;
+	}
+
+	/**
+	 * Scrive i valori della tupla, che deve seguire lo schema scritto con
+	 * {@link #writeSchema(DataOutputStream, Tuple)}.
+	 * 
+	 * @param out Destinazione
+	 * @param tuple Tupla da scrivere
+	 * @throws IOException
+	 */
+	public static void writeTuple(DataOutputStream out, Tuple tuple) throws IOException
+	{
+		for(int j = 0; j < tuple.getLength(); j++) {
+			Item item = tuple.get(j);
+			if(item.getAttribute() instanceof DiscreteAttribute)
+				out.writeInt(((DiscreteAttribute) item.getAttribute()).indexOf((String) item.getValue()));
+			else
+				out.writeDouble((Double) item.getValue());
+		}
+	}
+
+	/**
+	 * Legge una tupla scritta con {@link #writeTuple(DataOutputStream, Tuple)}.
+	 * 
+	 * @param in Sorgente, posizionata all'inizio della tupla
+	 * @param schema Schema della tupla (si veda {@link #readSchema(ByteBuffer)})
+	 * @return Tupla letta
+	 * @throws IOException se un codice non appartiene al dominio dell'attributo
+	 */
+	public static Tuple readTuple(ByteBuffer in, List<Attribute> schema) throws IOException
+	{
+		Tuple tuple = new Tuple(schema.size());
+		for(int j = 0; j < schema.size(); j++) {
+			Attribute attribute = schema.get(j);
+			if(attribute instanceof DiscreteAttribute) {
+				int code = in.getInt();
+				if(code < 0 || code >= ((DiscreteAttribute) attribute).getNumberOfDistinctValues())
+					throw new IOException("codice " + code + " non valido per " + attribute);
+				tuple.add(new DiscreteItem(attribute, ((DiscreteAttribute) attribute).getValue(code)), j);
+			} else {
+				tuple.add(new ContinuosItem(attribute, in.getDouble()), j);
+			}
+		}
+		return tuple;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException
+	{
+		byte bytes[] = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer in) throws IOException
+	{
+		int length = in.getInt();
+		if(length < 0 || length > in.remaining())
+			throw new IOException("lunghezza di stringa non valida: " + length);
+		byte bytes[] = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,14 @@
+package data;
+
+/**
+* Classe enumerativa che elenca le strategie di scelta dei centroidi iniziali
+* (si veda {@link Data#sampling(int, SAMPLING_TYPE, long)}):
+* RANDOM (righe scelte in modo uniforme), KMEANS_PLUS_PLUS (k-means++) e
+* KMEANS_PARALLEL (k-means||).
+* 
+* @author Veronico, Mazzone, Sgaramella
+*
+*/
+public enum SAMPLING_TYPE {
+	RANDOM, KMEANS_PLUS_PLUS, KMEANS_PARALLEL
+}
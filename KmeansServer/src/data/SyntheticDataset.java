@@ -0,0 +1,178 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * La classe genera una sorgente di transazioni sintetiche (si veda {@link DatasetSource}),
+ * utile per misurare le prestazioni su tabelle di grandi dimensioni senza una base di dati.
+ * Ogni riga appartiene ad uno tra blobs gruppi scelto in modo uniforme:
+ * gli attributi continui seguono una distribuzione normale (deviazione standard
+ * {@link #STANDARD_DEVIATION}) attorno al centro del gruppo, scelto in [0, 10];
+ * gli attributi discreti seguono una distribuzione di Zipf sul dominio, ruotata in modo che
+ * il valore piu' frequente dipenda dal gruppo.
+ * A parita' di parametri e di seme le transazioni generate sono identiche. Le colonne sono
+ * generate in parallelo, ciascuna con un proprio generatore di numeri casuali.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class SyntheticDataset implements DatasetSource {
+
+	/**
+	 * Deviazione standard degli attributi continui attorno al centro del gruppo.
+	 */
+	private static final double STANDARD_DEVIATION = 0.5;
+
+	private int numberOfExamples;
+
+	private List<Attribute> schema = new ArrayList<Attribute>();
+
+	private double continuousColumns[][];
+
+	private int discreteColumns[][];
+
+	/**
+	 * Gruppo di appartenenza di ciascuna riga.
+	 */
+	private int blobs[];
+
+	/**
+	 * Genera le transazioni.
+	 * 
+	 * @param n Numero di righe
+	 * @param continuous Numero di attributi continui (le prime colonne)
+	 * @param discrete Numero di attributi discreti (le colonne successive)
+	 * @param domain Numero di valori di ciascun attributo discreto
+	 * @param blobs Numero di gruppi
+	 * @param zipfExponent Esponente della distribuzione di Zipf (0 per la distribuzione uniforme)
+	 * @param seed Seme del generatore di numeri casuali
+	 */
+	public SyntheticDataset(final int n, final int continuous, final int discrete, final int domain, final int blobs, double zipfExponent, long seed)
+	{
+		if(n < 0 || continuous < 0 || discrete < 0 || blobs < 1 || (discrete > 0 && domain < 1))
+			throw new IllegalArgumentException("parametri non validi");
+		this.numberOfExamples = n;
+		SplittableRandom root = new SplittableRandom(seed);
+		final double centers[][] = new double[blobs][continuous];
+		final int shifts[][] = new int[blobs][discrete];
+		for(int b = 0; b < blobs; b++) {
+			for(int j = 0; j < continuous; j++)
+				centers[b][j] = root.nextDouble() * 10;
+			for(int j = 0; j < discrete; j++)
+				shifts[b][j] = root.nextInt(domain);
+		}
+		SplittableRandom blobRandom = root.split();
+		this.blobs = new int[n];
+		for(int i = 0; i < n; i++)
+			this.blobs[i] = blobRandom.nextInt(blobs);
+		final double cumulative[] = new double[discrete > 0 ? domain : 0];
+		double total = 0;
+		for(int r = 0; r < cumulative.length; r++) {
+			total += 1 / Math.pow(r + 1, zipfExponent);
+			cumulative[r] = total;
+		}
+		for(int r = 0; r < cumulative.length; r++)
+			cumulative[r] /= total;
+		final int numberOfAttributes = continuous + discrete;
+		final SplittableRandom columnRandoms[] = new SplittableRandom[numberOfAttributes];
+		for(int j = 0; j < numberOfAttributes; j++)
+			columnRandoms[j] = root.split();
+		continuousColumns = new double[numberOfAttributes][];
+		discreteColumns = new int[numberOfAttributes][];
+		IntStream.range(0, numberOfAttributes).parallel().forEach(j -> {
+			if(j < continuous)
+				continuousColumns[j] = gaussianColumn(n, centers, j, columnRandoms[j]);
+			else
+				discreteColumns[j] = zipfColumn(n, cumulative, shifts, j - continuous, columnRandoms[j]);
+		});
+		String values[] = new String[discrete > 0 ? domain : 0];
+		int width = String.valueOf(Math.max(domain - 1, 0)).length();
+		for(int v = 0; v < values.length; v++)
+			values[v] = String.format("v%0" + width + "d", v);
+		for(int j = 0; j < numberOfAttributes; j++) {
+			if(j < continuous) {
+				double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+				for(double value : continuousColumns[j]) {
+					min = Math.min(min, value);
+					max = Math.max(max, value);
+				}
+				schema.add(new ContinuosAttribute("c" + j, j, min, max));
+			} else {
+				schema.add(new DiscreteAttribute("d" + j, j, values));
+			}
+		}
+	}
+
+	/**
+	 * Genera la colonna dell'attributo continuo j con il metodo di Box-Muller.
+	 */
+	private double[] gaussianColumn(int n, double centers[][], int j, SplittableRandom rand)
+	{
+		double column[] = new double[n];
+		for(int i = 0; i < n; i += 2) {
+			double radius = STANDARD_DEVIATION * Math.sqrt(-2 * Math.log(1 - rand.nextDouble()));
+			double angle = 2 * Math.PI * rand.nextDouble();
+			column[i] = centers[blobs[i]][j] + radius * Math.cos(angle);
+			if(i + 1 < n)
+				column[i + 1] = centers[blobs[i + 1]][j] + radius * Math.sin(angle);
+		}
+		return column;
+	}
+
+	/**
+	 * Genera i codici dell'attributo discreto j: il rango estratto dalla distribuzione
+	 * cumulativa di Zipf e' ruotato dello spostamento del gruppo della riga.
+	 */
+	private int[] zipfColumn(int n, double cumulative[], int shifts[][], int j, SplittableRandom rand)
+	{
+		int column[] = new int[n];
+		for(int i = 0; i < n; i++) {
+			int rank = Arrays.binarySearch(cumulative, rand.nextDouble());
+			if(rank < 0)
+				rank = -rank - 1;
+			rank = Math.min(rank, cumulative.length - 1);
+			column[i] = (rank + shifts[blobs[i]][j]) % cumulative.length;
+		}
+		return column;
+	}
+
+	/**
+	 * Ritorna il gruppo da cui e' stata generata una riga, utile per valutare la qualita'
+	 * dei cluster scoperti.
+	 * 
+	 * @param exampleIndex Indice della riga
+	 * @return indice del gruppo
+	 */
+	public int getBlob(int exampleIndex)
+	{
+		return blobs[exampleIndex];
+	}
+
+	public List<Attribute> getAttributeSchema()
+	{
+		return schema;
+	}
+
+	public int getNumberOfExamples()
+	{
+		return numberOfExamples;
+	}
+
+	public double[] getContinuousColumn(int attributeIndex)
+	{
+		return continuousColumns[attributeIndex];
+	}
+
+	public int[] getDiscreteColumn(int attributeIndex)
+	{
+		return discreteColumns[attributeIndex];
+	}
+
+	public int[] getWeights()
+	{
+		return null;
+	}
+}
@@ -10,15 +10,67 @@ import java.io.Serializable;
  * @author Veronico, Mazzone, Sgaramella
  *
  */
-@SuppressWarnings("serial")
 public class Tuple implements Serializable
 {
+	/**
+	 * Identificativo di versione calcolato sulla classe originale, mantenuto in modo che
+	 * i centroidi salvati con la serializzazione Java possano ancora essere letti.
+	 */
+	private static final long serialVersionUID = 8413516893319797395L;
+	
 	/**
 	 * Array di item che rappresenta la sequenza di coppie attributo-valore
 	 * caratterizzanti la tupla.
 	 */
 	Item[] tuple;
 	
+	/**
+	 * Rappresentazione primitiva della tupla usata da {@link #getDistance(Data, int)}.
+	 * E' costruita al primo utilizzo e invalidata ad ogni modifica degli item attraverso
+	 * la tupla ({@link #add(Item, int)} e {@link #update(ClusterStatistics)}).
+	 */
+	private transient Kernel kernel;
+	
+	/**
+	 * Valori della tupla pronti per il calcolo della distanza da una riga di {@link Data}:
+	 * per gli attributi continui il valore gia' scalato, per quelli discreti il codice del
+	 * valore nel dominio. I campi final rendono l'oggetto visibile in modo sicuro ai thread
+	 * che calcolano le distanze in parallelo.
+	 */
+	private static final class Kernel
+	{
+		/**
+		 * Attributo continuo in posizione j, null se l'attributo e' discreto.
+		 */
+		final ContinuosAttribute attributes[];
+		
+		/**
+		 * Valore scalato dell'attributo continuo in posizione j.
+		 */
+		final double scaled[];
+		
+		/**
+		 * Codice del valore dell'attributo discreto in posizione j (negativo se il valore
+		 * non appartiene al dominio).
+		 */
+		final int codes[];
+		
+		Kernel(Item tuple[])
+		{
+			attributes = new ContinuosAttribute[tuple.length];
+			scaled = new double[tuple.length];
+			codes = new int[tuple.length];
+			for(int j = 0; j < tuple.length; j++) {
+				if(tuple[j].getAttribute() instanceof ContinuosAttribute) {
+					attributes[j] = (ContinuosAttribute) tuple[j].getAttribute();
+					scaled[j] = attributes[j].getScaledValue((Double) tuple[j].getValue());
+				} else {
+					codes[j] = ((DiscreteAttribute) tuple[j].getAttribute()).indexOf((String) tuple[j].getValue());
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Inizializza la tupla specificando una dimensione per l'array {@link #tuple}
 	 * 
@@ -64,6 +116,39 @@ public class Tuple implements Serializable
 	void add(Item c,int i)
 	{
 		tuple[i]=c;
+		kernel=null;
+	}
+	
+	/**
+	 * Aggiorna tutti gli item della tupla con i valori del centroide descritto da
+	 * statistics (si veda {@link Item#update(ClusterStatistics)}).
+	 * 
+	 * @param statistics Statistiche sufficienti di un insieme di righe
+	 */
+	public void update(ClusterStatistics statistics)
+	{
+		for(int i = 0; i < getLength(); i++)
+			tuple[i].update(statistics);
+		kernel=null;
+	}
+	
+	/**
+	 * Crea una copia della tupla corrente, con item distinti da quelli della tupla
+	 * originale: i successivi aggiornamenti di un centroide (si veda 
+	 * {@link Item#update(ClusterStatistics)}) non modificano la copia.
+	 * 
+	 * @return Copia della tupla corrente
+	 */
+	public Tuple copy()
+	{
+		Tuple copy = new Tuple(getLength());
+		for(int i = 0; i < getLength(); i++) {
+			if(tuple[i] instanceof DiscreteItem)
+				copy.add(new DiscreteItem(tuple[i].getAttribute(), tuple[i].getValue()), i);
+			else
+				copy.add(new ContinuosItem(tuple[i].getAttribute(), (Double) tuple[i].getValue()), i);
+		}
+		return copy;
 	}
 	
 	/**
@@ -92,9 +177,39 @@ public class Tuple implements Serializable
 		return distance;
 	}
 	
+	/**
+	 * Determina la distanza tra la tupla corrente e la riga exampleIndex di data, con lo stesso
+	 * risultato di getDistance(data.getItemSet(exampleIndex)) ma senza creare oggetti:
+	 * i valori della riga sono letti direttamente dalle colonne di data e confrontati con i
+	 * valori gia' scalati (o codificati) della tupla corrente.
+	 * La tupla deve seguire lo schema di data.
+	 * 
+	 * @param data Tabella a cui appartiene la riga
+	 * @param exampleIndex Indice della riga
+	 * 
+	 * @return Un valore di tipo double rapprensentante la distanza tra la tupla e la riga
+	 */
+	public double getDistance(Data data, int exampleIndex)
+	{
+		Kernel k = kernel;
+		if(k == null) {
+			k = new Kernel(tuple);
+			kernel = k;
+		}
+		double distance = 0;
+		for(int j = 0; j < k.codes.length; j++) {
+			if(k.attributes[j] != null) 
+				distance += Math.abs(k.attributes[j].getScaledValue(data.getContinuousValue(exampleIndex, j)) - k.scaled[j]);
+			else if(data.getDiscreteValue(exampleIndex, j) != k.codes[j])
+				distance += 1;
+		}
+		return distance;
+	}
+	
 	/**
 	 * Restituisce la media delle distanze tra la tupla corrente e quelle ottenibili dalle righe 
-	 * della tabella riferita da data aventi indice in clusteredData.
+	 * della tabella riferita da data aventi indice in clusteredData, pesata con i pesi delle
+	 * righe (si veda {@link Data#getWeight(int)}).
 	 * Per l'ottenimento delle tuple nelle corrispondenti righe indicizzate da clusteredData,
 	 * si veda il metodo {@link Data#getItemSet(int)}.
 	 * 
@@ -108,11 +223,13 @@ public class Tuple implements Serializable
 	public double avgDistance(Data data, int clusteredData[])
 	{
 		double p=0, sumD=0.0;
+		long weight=0;
 		for(int i=0; i<clusteredData.length; i++) {
-			double d = getDistance(data.getItemSet(clusteredData[i]));
-			sumD += d;
+			double d = getDistance(data, clusteredData[i]);
+			sumD += data.getWeight(clusteredData[i]) * d;
+			weight += data.getWeight(clusteredData[i]);
 		}
-		p = sumD/clusteredData.length;
+		p = sumD/weight;
 		return p;
 	}
 	
@@ -0,0 +1,287 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+
+/**
+ * La classe mantiene un insieme limitato di connessioni alla base di dati, condivise
+ * tra i thread del server: una connessione e' ottenuta con {@link #borrow()} e
+ * restituita con {@link #release(Connection)} al termine dell'utilizzo, senza essere chiusa.
+ * Se tutte le {@link #maxSize} connessioni sono in uso la richiesta attende al piu'
+ * {@link #maxWaitMillis} millisecondi, dopodiche' solleva {@link DatabaseConnectionException}.
+ * Una connessione rimasta inutilizzata per piu' di {@link #validationIntervalMillis}
+ * millisecondi viene verificata prima di essere riutilizzata e sostituita se non e' piu' valida.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class ConnectionPool {
+
+	/**
+	 * Connessione inutilizzata con l'istante della restituzione.
+	 */
+	private static class IdleConnection {
+		private Connection connection;
+		private long releasedAt;
+
+		private IdleConnection(Connection connection, long releasedAt)
+		{
+			this.connection = connection;
+			this.releasedAt = releasedAt;
+		}
+	}
+
+	private String url;
+
+	private String user;
+
+	private String password;
+
+	/**
+	 * Numero massimo di connessioni aperte (in uso e inutilizzate).
+	 */
+	private int maxSize;
+
+	/**
+	 * Attesa massima di una connessione libera, in millisecondi.
+	 */
+	private long maxWaitMillis;
+
+	/**
+	 * Inutilizzo oltre il quale una connessione e' verificata prima del riutilizzo.
+	 */
+	private long validationIntervalMillis = 5000;
+
+	/**
+	 * Connessioni inutilizzate: l'ultima restituita e' la prima riutilizzata.
+	 */
+	private ArrayDeque<IdleConnection> idle = new ArrayDeque<IdleConnection>();
+
+	/**
+	 * Numero di connessioni in uso (comprese quelle in apertura).
+	 */
+	private int active;
+
+	private boolean closed;
+
+	private long borrows, created, discarded, timeouts, waitNanos, maxWaitNanos;
+
+	/**
+	 * @param url Url JDBC della base di dati
+	 * @param user Utente
+	 * @param password Password
+	 * @param maxSize Numero massimo di connessioni aperte
+	 * @param maxWaitMillis Attesa massima di una connessione libera, in millisecondi
+	 */
+	public ConnectionPool(String url, String user, String password, int maxSize, long maxWaitMillis)
+	{
+		if(maxSize < 1)
+			throw new IllegalArgumentException("maxSize < 1");
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.maxSize = maxSize;
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	/**
+	 * @param validationIntervalMillis Inutilizzo oltre il quale una connessione e' verificata
+	 * 		  prima del riutilizzo, 0 per verificarla sempre
+	 */
+	public synchronized void setValidationIntervalMillis(long validationIntervalMillis)
+	{
+		this.validationIntervalMillis = validationIntervalMillis;
+	}
+
+	/**
+	 * Ottiene una connessione: riutilizza l'ultima restituita se disponibile, ne apre una
+	 * nuova se non si e' raggiunto {@link #maxSize}, altrimenti attende che ne venga
+	 * restituita una.
+	 * 
+	 * @return connessione da restituire con {@link #release(Connection)}
+	 * @throws DatabaseConnectionException se nessuna connessione si libera entro
+	 * 		   {@link #maxWaitMillis} millisecondi o se l'insieme e' stato chiuso
+	 * @throws SQLException se l'apertura di una nuova connessione fallisce
+	 */
+	public Connection borrow() throws DatabaseConnectionException, SQLException
+	{
+		long start = System.nanoTime();
+		IdleConnection reused = null;
+		synchronized(this) {
+			long deadline = start + maxWaitMillis * 1000000;
+			while(idle.isEmpty() && active + idle.size() >= maxSize && !closed) {
+				long remaining = deadline - System.nanoTime();
+				if(remaining <= 0) {
+					timeouts++;
+					throw new DatabaseConnectionException();
+				}
+				try {
+					wait(remaining / 1000000 + 1);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new DatabaseConnectionException();
+				}
+			}
+			if(closed)
+				throw new DatabaseConnectionException();
+			reused = idle.pollLast();
+			active++;
+			borrows++;
+			long waited = System.nanoTime() - start;
+			waitNanos += waited;
+			maxWaitNanos = Math.max(maxWaitNanos, waited);
+		}
+		try {
+			if(reused != null) {
+				if(System.currentTimeMillis() - reused.releasedAt < validationIntervalMillis || isValid(reused.connection))
+					return reused.connection;
+				closeQuietly(reused.connection);
+				synchronized(this) {
+					discarded++;
+				}
+			}
+			Connection connection = DriverManager.getConnection(url, user, password);
+			synchronized(this) {
+				created++;
+			}
+			return connection;
+		} catch(SQLException e) {
+			synchronized(this) {
+				active--;
+				notifyAll();
+			}
+			throw e;
+		} catch(RuntimeException e) {
+			synchronized(this) {
+				active--;
+				notifyAll();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Restituisce una connessione ottenuta con {@link #borrow()}. La connessione viene chiusa
+	 * se risulta gia' chiusa o se l'insieme e' stato chiuso, altrimenti resta disponibile
+	 * per le richieste successive.
+	 * 
+	 * @param connection Connessione da restituire
+	 */
+	public void release(Connection connection)
+	{
+		boolean open;
+		try {
+			open = !connection.isClosed();
+		} catch(SQLException e) {
+			open = false;
+		}
+		boolean close = false;
+		synchronized(this) {
+			active--;
+			if(open && !closed) {
+				idle.addLast(new IdleConnection(connection, System.currentTimeMillis()));
+			} else {
+				discarded++;
+				close = open;
+			}
+			notifyAll();
+		}
+		if(close)
+			closeQuietly(connection);
+	}
+
+	/**
+	 * Chiude le connessioni inutilizzate; quelle in uso sono chiuse alla restituzione.
+	 */
+	public void close()
+	{
+		ArrayDeque<IdleConnection> toClose;
+		synchronized(this) {
+			closed = true;
+			toClose = idle;
+			idle = new ArrayDeque<IdleConnection>();
+			notifyAll();
+		}
+		for(IdleConnection connection : toClose)
+			closeQuietly(connection.connection);
+	}
+
+	private static boolean isValid(Connection connection)
+	{
+		try {
+			return connection.isValid(2);
+		} catch(SQLException e) {
+			return false;
+		}
+	}
+
+	private static void closeQuietly(Connection connection)
+	{
+		try {
+			connection.close();
+		} catch(SQLException e) {
+			//la connessione e' comunque scartata
+		}
+	}
+
+	/**
+	 * @return numero di connessioni in uso
+	 */
+	public synchronized int getActive()
+	{
+		return active;
+	}
+
+	/**
+	 * @return numero di connessioni aperte e inutilizzate
+	 */
+	public synchronized int getIdle()
+	{
+		return idle.size();
+	}
+
+	public synchronized long getBorrows()
+	{
+		return borrows;
+	}
+
+	/**
+	 * @return numero di connessioni aperte dalla creazione dell'insieme
+	 */
+	public synchronized long getCreated()
+	{
+		return created;
+	}
+
+	/**
+	 * @return numero di richieste non soddisfatte entro {@link #maxWaitMillis}
+	 */
+	public synchronized long getTimeouts()
+	{
+		return timeouts;
+	}
+
+	/**
+	 * @return attesa media di una connessione in millisecondi
+	 */
+	public synchronized double getAverageWaitMillis()
+	{
+		return borrows == 0 ? 0 : waitNanos / 1e6 / borrows;
+	}
+
+	/**
+	 * @return attesa massima di una connessione in millisecondi
+	 */
+	public synchronized double getMaxWaitMillis()
+	{
+		return maxWaitNanos / 1e6;
+	}
+
+	public synchronized String toString()
+	{
+		return "attive=" + active + " libere=" + idle.size() + " richieste=" + borrows + " aperte=" + created 
+			+ " scartate=" + discarded + " timeout=" + timeouts + " attesa media ms=" + getAverageWaitMillis()
+			+ " attesa max ms=" + getMaxWaitMillis();
+	}
+}
@@ -13,6 +13,10 @@ import java.sql.*;
  * Sia la porta, sia lo userid che la password saranno specificati all'interno del 
  * {@link server.DatabaseDialog}. I dati specificati all'interno della finestra modale,
  * verranno utilizzati all'interno del costruttore.
+ * Le connessioni sono ottenute da un {@link ConnectionPool} condiviso: ciascun oggetto
+ * DbAccess ottiene la propria connessione con {@link #initConnection()} e la restituisce
+ * con {@link #closeConnection()}, per cui richieste contemporanee non interferiscono e
+ * non riaprono la connessione ad ogni richiesta.
  * 
  * @author Veronico, Mazzone, Sgaramella
  *
@@ -23,7 +27,7 @@ public class DbAccess {
 	 * Nome del driver utilizzato per la connessione al database.
 	 * Sara' inizializzato con: org.gjt.mm.mysql.Driver
 	 */
-	String DRIVER_CLASS_NAME = "org.gjt.mm.mysql.Driver";
+	private static final String DRIVER_CLASS_NAME = "org.gjt.mm.mysql.Driver";
 	
 	/**
 	 * Tipo di DBMS.
@@ -61,40 +65,90 @@ public class DbAccess {
 	 */
 	private static final String PASSWORD = "map";
 	
+	/**
+	 * Numero massimo di connessioni aperte dall'insieme di default.
+	 */
+	private static final int POOL_SIZE = 8;
+	
+	/**
+	 * Attesa massima di una connessione libera dall'insieme di default, in millisecondi.
+	 */
+	private static final long POOL_MAX_WAIT_MILLIS = 30000;
+	
+	/**
+	 * Insieme di connessioni condiviso da tutti gli oggetti DbAccess. E' creato alla prima
+	 * richiesta sulla base di dati mysql, se non impostato con {@link #setPool(ConnectionPool)}.
+	 */
+	private static ConnectionPool pool;
+	
 	/**
 	 * Oggetto istanza della classe Connection.
 	 * 
 	 */
-	private static Connection conn;// gestisce una connessione
+	private Connection conn;// gestisce una connessione
+	
+	/**
+	 * Imposta l'insieme di connessioni da utilizzare, ad esempio verso una base di dati
+	 * diversa da quella di default.
+	 * 
+	 * @param connectionPool Insieme di connessioni
+	 */
+	public static synchronized void setPool(ConnectionPool connectionPool)
+	{
+		pool = connectionPool;
+	}
 	
 	/**
-	 * Impartisce al class loader il compito di caricare il driver mysql e inizializza la connessione riferita da conn.
+	 * Ritorna l'insieme di connessioni condiviso, creandolo sulla base di dati mysql
+	 * se non e' ancora stato impostato.
+	 * 
+	 * @return insieme di connessioni
+	 */
+	public static synchronized ConnectionPool getPool()
+	{
+		if(pool == null)
+		{
+			try
+			{
+				Class.forName(DRIVER_CLASS_NAME);
+			}
+			catch (ClassNotFoundException e)
+			{
+				System.err.println("Problema con il Driver del DB");
+			}
+			pool = new ConnectionPool(DBMS+"://"+SERVER+":"+PORT+"/"+DATABASE, USER_ID, PASSWORD, POOL_SIZE, POOL_MAX_WAIT_MILLIS);
+		}
+		return pool;
+	}
+	
+	/**
+	 * Ottiene dall'insieme condiviso la connessione riferita da conn.
 	 * @throws DatabaseConnectionException solleva e propaga una eccezione di tipo DatabaseConnectionException in caso di fallimento nella connessione al database.
 	 * @throws ClassNotFoundException  
 	 * @throws InstantiationException 
 	 * @throws SQLException 
 	 */
-	public static void initConnection() throws DatabaseConnectionException, ClassNotFoundException, SQLException, InstantiationException
+	public void initConnection() throws DatabaseConnectionException, ClassNotFoundException, SQLException, InstantiationException
 	{
-		try
-		{
-			Class.forName("org.gjt.mm.mysql.Driver");
-		}
-		catch (ClassNotFoundException e)
-		{
-			System.err.println("Problema con il Driver del DB");
-		}
-		conn = DriverManager.getConnection(DBMS+"://"+SERVER+":"+PORT+"/"+DATABASE, USER_ID, PASSWORD);
+		if(conn == null)
+			conn = getPool().borrow();
 	}
 	
-	public static Connection getConnection()
+	public Connection getConnection()
 	{
 		return conn;
 	}
 	
-	public static void closeConnection() throws SQLException
+	/**
+	 * Restituisce all'insieme condiviso la connessione riferita da conn.
+	 */
+	public void closeConnection() throws SQLException
 	{
-		conn.close();
+		if(conn != null)
+		{
+			getPool().release(conn);
+			conn = null;
+		}
 	}
 
 }
@@ -0,0 +1,17 @@
+package database;
+
+/**
+ * Interfaccia che modella il destinatario delle transazioni lette una alla volta dalla
+ * base di dati (si veda {@link TableData#scanTransazioni(String, ExampleHandler)}).
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public interface ExampleHandler {
+
+	/**
+	 * Elabora la transazione appena letta dalla base di dati.
+	 * 
+	 * @param example Transazione letta
+	 */
+	void handle(Example example);
+}
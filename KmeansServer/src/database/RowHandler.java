@@ -0,0 +1,43 @@
+package database;
+
+/**
+ * Interfaccia che modella il destinatario dei valori delle transazioni lette una alla volta
+ * dalla base di dati (si veda {@link TableData#scanTransazioni(String, TableSchema, RowHandler)}).
+ * A differenza di {@link ExampleHandler} i valori sono passati singolarmente, senza costruire
+ * un oggetto {@link Example} per ciascuna transazione.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public interface RowHandler {
+
+	/**
+	 * Elabora il valore di una colonna numerica della transazione corrente.
+	 * 
+	 * @param attributeIndex Indice della colonna nello schema
+	 * @param value Valore letto
+	 */
+	void handleNumber(int attributeIndex, double value);
+
+	/**
+	 * Elabora il valore di una colonna non numerica della transazione corrente.
+	 * 
+	 * @param attributeIndex Indice della colonna nello schema
+	 * @param value Valore letto
+	 */
+	void handleString(int attributeIndex, String value);
+
+	/**
+	 * Riceve il numero di occorrenze nella tabella della transazione corrente; e' invocato
+	 * solo dalle letture pesate (si veda
+	 * {@link TableData#scanWeightedTransazioni(String, TableSchema, RowHandler)}), prima di
+	 * {@link #endRow()}.
+	 * 
+	 * @param weight Numero di righe della tabella uguali alla transazione corrente
+	 */
+	void handleWeight(int weight);
+
+	/**
+	 * Segnala che tutti i valori della transazione corrente sono stati passati.
+	 */
+	void endRow();
+}
@@ -21,7 +21,10 @@ import database.TableSchema.Column;
  * Il risultato fornito da questa classe viene trattato dai metodi qui presenti. In particolare 
  * grazie ai metodi
  * {@link TableData#getDistinctTransazioni(String)}, 
- * {@link TableData#getDistinctColumnValues(String, TableSchema.Column)} e 
+ * {@link TableData#scanTransazioni(String, TableSchema, RowHandler)},
+ * {@link TableData#scanWeightedTransazioni(String, TableSchema, RowHandler)},
+ * {@link TableData#getDistinctColumnValues(String, TableSchema.Column)},
+ * {@link TableData#getMinMaxColumnValues(String, List)} e 
  * {@link TableData#getAggregateColumnValue(String, TableSchema.Column, QUERY_TYPE)} lo schema
  * verra' utilizzato per potare a termine particolari operazioni (si veda la definizione
  * dei metodi per osservare come lo schema viene utilizzato).
@@ -37,6 +40,16 @@ public class TableData {
 	 */
 	DbAccess db;
 
+	/**
+	 * Dimensione di fetch che, con il driver mysql, fa ricevere le righe una alla volta.
+	 */
+	public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+	/**
+	 * Dimensione di fetch utilizzata da {@link #scanTransazioni(String, TableSchema, RowHandler)}.
+	 */
+	private int fetchSize = STREAMING_FETCH_SIZE;
+
 	/**
 	 * Il costruttore della classe si occupa di inizializzare il membro {@link #db}
 	 * in modo da rendere disponibile l'accesso alla base di dati all'intera classe.
@@ -47,6 +60,20 @@ public class TableData {
 		this.db=db;
 	}
 	
+	/**
+	 * Imposta la dimensione di fetch delle letture in avanti (si veda
+	 * {@link #scanTransazioni(String, TableSchema, RowHandler)}): {@link #STREAMING_FETCH_SIZE}
+	 * per ricevere le righe una alla volta, un valore positivo per riceverle a blocchi (con
+	 * il driver mysql richiede l'opzione useCursorFetch=true nell'url), 0 per il
+	 * comportamento di default del driver.
+	 * 
+	 * @param fetchSize Dimensione di fetch
+	 */
+	public void setFetchSize(int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+	}
+
 	/**
 	 * Ricava lo schema della tabella con nome table. Esegue una interrogazione per estrarre le 
 	 * tuple distinte da tale tabella. Per ogni tupla del resultset, si crea un oggetto, istanza 
@@ -64,29 +91,201 @@ public class TableData {
 	 * @throws EmptySetException   Se il resultset, ottenuto dalla query, e' vuoto.
 	 * 
 	 */
-	@SuppressWarnings("static-access")
 	public List<Example> getDistinctTransazioni(String table) throws SQLException, EmptySetException
 	{
-		TableSchema schema = new TableSchema(this.db, table);
+		return getDistinctTransazioni(table, new TableSchema(this.db, table));
+	}
+
+	/**
+	 * Come {@link #getDistinctTransazioni(String)}, utilizzando lo schema gia' letto dalla
+	 * base di dati anziche' leggerlo nuovamente.
+	 * 
+	 * @param table La tabella a partire della quale si effettuera' l'interrogazione
+	 * @param schema Schema della tabella
+	 * 
+	 * @return Lista completa contente tutte le tuple distinte.
+	 */
+	@SuppressWarnings("static-access")
+	public List<Example> getDistinctTransazioni(String table, TableSchema schema) throws SQLException, EmptySetException
+	{
 		String query = "SELECT DISTINCT * FROM " + table;
 		Statement s = db.getConnection().createStatement();
-		ResultSet result = s.executeQuery(query);
 		List<Example> list = new ArrayList<Example>();
-		while(result.next()) {
-			Example ex = new Example();
-			for(int i = 0; i < schema.getNumberOfAttributes(); i++) {
-				if(schema.getColumn(i).isNumber()) {
-					ex.add(result.getDouble(i+1));
-				} else {
-					ex.add(result.getString(i+1));
+		try {
+			ResultSet result = s.executeQuery(query);
+			while(result.next()) {
+				Example ex = new Example();
+				for(int i = 0; i < schema.getNumberOfAttributes(); i++) {
+					if(schema.getColumn(i).isNumber()) {
+						ex.add(result.getDouble(i+1));
+					} else {
+						ex.add(result.getString(i+1));
+					}
 				}
+				list.add(ex);
 			}
-			list.add(ex);
+		} finally {
+			//la connessione e' riutilizzata (si veda ConnectionPool): lo statement va chiuso
+			s.close();
 		}
 		return list;
 
 	}
 
+	/**
+	 * Esegue la stessa interrogazione di {@link #getDistinctTransazioni(String)} ma, anziche'
+	 * costruire la lista delle transazioni, passa ciascuna transazione a handler non appena
+	 * viene letta (si veda {@link #scanTransazioni(String, TableSchema, RowHandler)}).
+	 * 
+	 * @param table La tabella a partire della quale si effettuera' l'interrogazione
+	 * @param handler Destinatario delle transazioni lette
+	 * 
+	 * @return Numero di transazioni lette
+	 * 
+	 * @throws SQLException		   L'eccezione e' sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws EmptySetException   Se il resultset, ottenuto dalla query, e' vuoto.
+	 */
+	public long scanTransazioni(String table, final ExampleHandler handler) throws SQLException, EmptySetException
+	{
+		return scanTransazioni(table, new TableSchema(this.db, table), new RowHandler() {
+			private Example ex = new Example();
+
+			public void handleNumber(int attributeIndex, double value) {
+				ex.add(value);
+			}
+
+			public void handleString(int attributeIndex, String value) {
+				ex.add(value);
+			}
+
+			public void handleWeight(int weight) {
+			}
+
+			public void endRow() {
+				handler.handle(ex);
+				ex = new Example();
+			}
+		});
+	}
+
+	/**
+	 * Esegue la stessa interrogazione di {@link #getDistinctTransazioni(String)} passando i
+	 * valori di ciascuna transazione a handler non appena vengono letti. Il resultset e'
+	 * percorso in avanti con la dimensione di fetch {@link #fetchSize}: con il driver mysql
+	 * il valore di default {@link #STREAMING_FETCH_SIZE} fa si' che le righe siano ricevute
+	 * una alla volta invece di essere caricate tutte in memoria, per cui la memoria occupata
+	 * non dipende dal numero di righe. Durante la lettura la connessione non puo' essere
+	 * utilizzata per altre interrogazioni.
+	 * 
+	 * @param table La tabella a partire della quale si effettuera' l'interrogazione
+	 * @param schema Schema della tabella
+	 * @param handler Destinatario dei valori letti
+	 * 
+	 * @return Numero di transazioni lette
+	 * 
+	 * @throws SQLException		   L'eccezione e' sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws EmptySetException   Se il resultset, ottenuto dalla query, e' vuoto.
+	 */
+	public long scanTransazioni(String table, TableSchema schema, RowHandler handler) throws SQLException, EmptySetException
+	{
+		return scan("SELECT DISTINCT * FROM " + table, schema, handler, false);
+	}
+
+	/**
+	 * Come {@link #scanTransazioni(String, TableSchema, RowHandler)}, ma senza eliminare i
+	 * duplicati: ogni riga della tabella e' passata a handler, nell'ordine in cui la base di
+	 * dati la restituisce. A differenza delle altre letture l'interrogazione non richiede
+	 * l'ordinamento (o il raggruppamento) dell'intera tabella.
+	 * 
+	 * @param table La tabella a partire della quale si effettuera' l'interrogazione
+	 * @param schema Schema della tabella
+	 * @param handler Destinatario dei valori letti
+	 * 
+	 * @return Numero di righe lette
+	 * 
+	 * @throws SQLException		   L'eccezione e' sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws EmptySetException   Se il resultset, ottenuto dalla query, e' vuoto.
+	 */
+	public long scanAllTransazioni(String table, TableSchema schema, RowHandler handler) throws SQLException, EmptySetException
+	{
+		return scan("SELECT * FROM " + table, schema, handler, false);
+	}
+
+	/**
+	 * Come {@link #scanTransazioni(String, TableSchema, RowHandler)}, ma anziche' scartare i
+	 * duplicati ne conserva il numero: l'interrogazione raggruppa le righe uguali
+	 * (GROUP BY su tutte le colonne) e per ciascuna transazione distinta passa a handler,
+	 * prima di {@link RowHandler#endRow()}, il numero di righe della tabella che la
+	 * contengono (si veda {@link RowHandler#handleWeight(int)}).
+	 * Su tabelle con molte ripetizioni le transazioni lette sono molte meno delle righe,
+	 * senza perdere l'informazione sulla loro frequenza.
+	 * 
+	 * @param table La tabella a partire della quale si effettuera' l'interrogazione
+	 * @param schema Schema della tabella
+	 * @param handler Destinatario dei valori e dei pesi letti
+	 * 
+	 * @return Numero di transazioni distinte lette
+	 * 
+	 * @throws SQLException		   L'eccezione e' sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws EmptySetException   Se il resultset, ottenuto dalla query, e' vuoto.
+	 */
+	public long scanWeightedTransazioni(String table, TableSchema schema, RowHandler handler) throws SQLException, EmptySetException
+	{
+		String columns = "";
+		for(int i = 0; i < schema.getNumberOfAttributes(); i++)
+			columns += (i > 0 ? ", " : "") + schema.getColumn(i).getColumnName();
+		return scan("SELECT " + columns + ", COUNT(*) FROM " + table + " GROUP BY " + columns, schema, handler, true);
+	}
+
+	/**
+	 * Esegue query percorrendo il resultset in avanti e passa a handler i valori delle
+	 * colonne dello schema e, se weighted, il peso letto nella colonna successiva.
+	 * 
+	 * @param query Interrogazione da eseguire
+	 * @param schema Schema della tabella
+	 * @param handler Destinatario dei valori letti
+	 * @param weighted Vero se l'ultima colonna del resultset contiene il peso della transazione
+	 * 
+	 * @return Numero di transazioni lette
+	 */
+	@SuppressWarnings("static-access")
+	private long scan(String query, TableSchema schema, RowHandler handler, boolean weighted) throws SQLException, EmptySetException
+	{
+		Statement s = db.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		s.setFetchSize(fetchSize);
+		int numberOfAttributes = schema.getNumberOfAttributes();
+		boolean number[] = new boolean[numberOfAttributes];
+		for(int i = 0; i < numberOfAttributes; i++)
+			number[i] = schema.getColumn(i).isNumber();
+		long rows = 0;
+		try {
+			ResultSet result = s.executeQuery(query);
+			while(result.next()) {
+				for(int i = 0; i < numberOfAttributes; i++) {
+					if(number[i]) {
+						handler.handleNumber(i, result.getDouble(i+1));
+					} else {
+						handler.handleString(i, result.getString(i+1));
+					}
+				}
+				if(weighted)
+					handler.handleWeight(result.getInt(numberOfAttributes + 1));
+				handler.endRow();
+				rows++;
+			}
+			result.close();
+		} finally {
+			s.close();
+		}
+		if(rows == 0)
+			throw new EmptySetException();
+		return rows;
+	}
+
 	/**
 	 * Formula ed esegue una interrogazione SQL per estrarre i valori distinti ordinati di 
 	 * column e popolare un insieme da restituire. L'insieme restituito sar&agrave un oggetto
@@ -109,13 +308,54 @@ public class TableData {
 		String query = "SELECT DISTINCT " + column.getColumnName() + " FROM " + table + " ORDER BY " + column.getColumnName() + " ASC";
 		Set<Object> set = new TreeSet<Object>();
 		Statement s = db.getConnection().createStatement();
-		ResultSet result = s.executeQuery(query);
-		while(result.next()) {
-			set.add(result.getObject(1));
+		try {
+			ResultSet result = s.executeQuery(query);
+			while(result.next()) {
+				set.add(result.getObject(1));
+			}
+		} finally {
+			s.close();
 		}
 		return set;
 	}
 	
+	/**
+	 * Estrae con un'unica interrogazione SQL (e quindi un'unica scansione della tabella)
+	 * il valore minimo e il valore massimo di ciascuna delle colonne specificate.
+	 * 
+	 * @param table		   La tabella a partire della quale si effettuera' l'interrogazione
+	 * @param columns	   Le colonne da considerare per la tabella specificata
+	 * 
+	 * @return Per ciascuna colonna, nello stesso ordine, il valore minimo (posizione 0) e il
+	 * 		   valore massimo (posizione 1), null se la colonna non contiene valori
+	 * 
+	 * @throws SQLException		   L'eccezione e' sollevata e propagata in presenza di errori 
+	 * 							   nella esecuzione della query.
+	 * @throws NoValueException	   Eccezione sollevata se il resultset e' vuoto
+	 */
+	public Object[][] getMinMaxColumnValues(String table, List<Column> columns) throws SQLException, NoValueException
+	{
+		String query = "SELECT ";
+		for(int i = 0; i < columns.size(); i++)
+			query += (i > 0 ? ", " : "") + QUERY_TYPE.MIN + "(" + columns.get(i).getColumnName() + "), "
+				+ QUERY_TYPE.MAX + "(" + columns.get(i).getColumnName() + ")";
+		query += " FROM " + table;
+		Statement s = db.getConnection().createStatement();
+		try {
+			ResultSet result = s.executeQuery(query);
+			if(!result.next())
+				throw new NoValueException();
+			Object values[][] = new Object[columns.size()][2];
+			for(int i = 0; i < columns.size(); i++) {
+				values[i][0] = result.getObject(2 * i + 1);
+				values[i][1] = result.getObject(2 * i + 2);
+			}
+			return values;
+		} finally {
+			s.close();
+		}
+	}
+
 	/**
 	 * Formula ed esegue una interrogazione SQL per estrarre il valore aggregato (valore minimo 
 	 * o valore massimo) cercato nella colonna di nome column della tabella di nome table.
@@ -139,10 +379,14 @@ public class TableData {
 	{
 		String query = "SELECT " + aggregate.toString() +"(" + column.getColumnName() +")" + " FROM " + table;
 		Statement s = db.getConnection().createStatement();
-		ResultSet result = s.executeQuery(query);
-		if(result.next())
-			return result.getObject(1);
-		else
-			return null;
+		try {
+			ResultSet result = s.executeQuery(query);
+			if(result.next())
+				return result.getObject(1);
+			else
+				return null;
+		} finally {
+			s.close();
+		}
 	}
 }
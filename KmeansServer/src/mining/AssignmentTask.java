@@ -0,0 +1,105 @@
+package mining;
+
+import java.util.concurrent.RecursiveAction;
+
+import data.Data;
+
+/**
+ * La classe modella il passo di assegnazione dell'algoritmo k-means (STEP 2) eseguito
+ * in parallelo su un {@link java.util.concurrent.ForkJoinPool}.
+ * L'intervallo di righe di {@link Data} viene suddiviso ricorsivamente e, per ciascuna riga,
+ * viene calcolato l'indice del cluster piu' vicino tramite
+ * {@link ClusterSet#nearestClusterIndex(Data, int, double[])}, insieme alla distanza dal
+ * suo centroide.
+ * Se e' specificato un {@link BoundedAssignment}, ogni intervallo viene elaborato tramite
+ * {@link BoundedAssignment#assign(Data, ClusterSet, int[], double[], int, int)}.
+ * Ogni sotto-attivita' scrive esclusivamente nella propria porzione del vettore dei risultati,
+ * mentre il {@link ClusterSet} viene soltanto letto: non sono quindi necessari lock.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+class AssignmentTask extends RecursiveAction {
+
+	/**
+	 * Numero di righe al di sotto del quale l'intervallo viene elaborato direttamente
+	 * senza ulteriori suddivisioni.
+	 */
+	private static final int THRESHOLD = 1024;
+
+	/**
+	 * Tabella delle transazioni da assegnare.
+	 */
+	private Data data;
+
+	/**
+	 * Insieme dei cluster i cui centroidi sono usati per l'assegnazione.
+	 */
+	private ClusterSet C;
+
+	/**
+	 * Limiti per l'assegnazione accelerata, null per l'assegnazione esatta.
+	 */
+	private BoundedAssignment bounds;
+
+	/**
+	 * Vettore dei risultati: nearest[i] conterra' l'indice del cluster piu' vicino alla riga i.
+	 */
+	private int nearest[];
+
+	/**
+	 * Vettore delle distanze: distances[i] conterra' la distanza della riga i dal centroide
+	 * piu' vicino (un suo limite superiore con l'assegnazione accelerata).
+	 */
+	private double distances[];
+
+	/**
+	 * Prima riga (inclusa) dell'intervallo da elaborare.
+	 */
+	private int from;
+
+	/**
+	 * Ultima riga (esclusa) dell'intervallo da elaborare.
+	 */
+	private int to;
+
+	/**
+	 * Inizializza l'attivita' di assegnazione per le righe nell'intervallo [from, to).
+	 * 
+	 * @param data Tabella delle transazioni
+	 * @param C Insieme dei cluster
+	 * @param bounds Limiti per l'assegnazione accelerata, null per l'assegnazione esatta
+	 * @param nearest Vettore in cui memorizzare i risultati
+	 * @param distances Vettore in cui memorizzare le distanze, null se non richieste
+	 * @param from Prima riga (inclusa)
+	 * @param to Ultima riga (esclusa)
+	 */
+	AssignmentTask(Data data, ClusterSet C, BoundedAssignment bounds, int nearest[], double distances[], int from, int to)
+	{
+		this.data = data;
+		this.C = C;
+		this.bounds = bounds;
+		this.nearest = nearest;
+		this.distances = distances;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected void compute()
+	{
+		if(to - from <= THRESHOLD) {
+			if(bounds != null) {
+				bounds.assign(data, C, nearest, distances, from, to);
+				return;
+			}
+			for(int i = from; i < to; i++) {
+				nearest[i] = C.nearestClusterIndex(data, i, distances);
+			}
+		} else {
+			int middle = (from + to) >>> 1;
+			invokeAll(new AssignmentTask(data, C, bounds, nearest, distances, from, middle),
+					new AssignmentTask(data, C, bounds, nearest, distances, middle, to));
+		}
+	}
+}
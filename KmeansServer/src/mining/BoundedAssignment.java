@@ -0,0 +1,240 @@
+package mining;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import data.Data;
+import data.Tuple;
+
+/**
+ * La classe realizza il passo di assegnazione dell'algoritmo k-means evitando il calcolo
+ * delle distanze da centroidi che non possono essere i piu' vicini (limiti di Hamerly).
+ * Per ciascuna riga vengono mantenuti un limite superiore alla distanza dal centroide del
+ * cluster assegnato ({@link #upper}) e un limite inferiore alla distanza da tutti gli altri
+ * centroidi ({@link #lower}). Dopo ogni aggiornamento dei centroidi i limiti vengono corretti
+ * con lo spostamento dei centroidi e, grazie alla disuguaglianza triangolare (la distanza tra
+ * tuple e' somma di metriche sui singoli attributi), una riga il cui limite superiore e'
+ * strettamente minore del limite inferiore non puo' cambiare cluster.
+ * Il cluster scelto coincide sempre con quello restituito da 
+ * {@link ClusterSet#nearestClusterIndex(Data, int)}.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+class BoundedAssignment {
+
+	/**
+	 * Limite superiore alla distanza di ciascuna riga dal centroide del proprio cluster.
+	 */
+	private double upper[];
+
+	/**
+	 * Limite inferiore alla distanza di ciascuna riga dai centroidi degli altri cluster.
+	 */
+	private double lower[];
+
+	/**
+	 * Copia dei centroidi usati nella precedente assegnazione, null prima della prima.
+	 */
+	private Tuple previous[];
+
+	/**
+	 * Spostamento di ciascun centroide rispetto alla precedente assegnazione.
+	 */
+	private double drift[];
+
+	/**
+	 * Meta' della distanza di ciascun centroide dal centroide piu' vicino.
+	 */
+	private double halfSeparation[];
+
+	/**
+	 * Indice del centroide con spostamento massimo.
+	 */
+	private int maxDriftIndex;
+
+	/**
+	 * Spostamento massimo e secondo spostamento massimo tra i centroidi.
+	 */
+	private double maxDrift, secondMaxDrift;
+
+	/**
+	 * Numero di distanze calcolate.
+	 */
+	private AtomicLong computedDistances = new AtomicLong();
+
+	/**
+	 * Numero di distanze non calcolate rispetto all'assegnazione esatta.
+	 */
+	private AtomicLong skippedDistances = new AtomicLong();
+
+	/**
+	 * Inizializza i limiti per una tabella di numberOfExamples righe. I limiti superiori
+	 * sono inizialmente infiniti, per cui alla prima assegnazione la distanza di una riga
+	 * gia' assegnata (come dopo {@link ClusterSet#restore(Data, Tuple[], int[])}) dal
+	 * centroide del proprio cluster e' sempre calcolata.
+	 * 
+	 * @param numberOfExamples Numero di righe della tabella
+	 */
+	BoundedAssignment(int numberOfExamples)
+	{
+		upper = new double[numberOfExamples];
+		lower = new double[numberOfExamples];
+		Arrays.fill(upper, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Prepara una nuova assegnazione: calcola lo spostamento dei centroidi rispetto alla
+	 * precedente assegnazione e la distanza di ogni centroide dal centroide piu' vicino.
+	 * Deve essere invocato prima di {@link #assign(Data, ClusterSet, int[], double[], int, int)},
+	 * ad ogni iterazione.
+	 * 
+	 * @param C Insieme dei cluster con i centroidi aggiornati
+	 */
+	void prepare(ClusterSet C)
+	{
+		int k = C.i;
+		if(previous == null) {
+			previous = new Tuple[k];
+			drift = new double[k];
+			halfSeparation = new double[k];
+		}
+		maxDrift = 0;
+		secondMaxDrift = 0;
+		maxDriftIndex = -1;
+		long computed = 0;
+		for(int j = 0; j < k; j++) {
+			Tuple centroid = C.get(j).getCentroid();
+			if(previous[j] != null) {
+				drift[j] = centroid.getDistance(previous[j]);
+				computed++;
+				if(!(drift[j] <= maxDrift)) {
+					secondMaxDrift = maxDrift;
+					maxDrift = drift[j];
+					maxDriftIndex = j;
+				} else if(!(drift[j] <= secondMaxDrift)) {
+					secondMaxDrift = drift[j];
+				}
+			}
+			previous[j] = centroid.copy();
+		}
+		for(int j = 0; j < k; j++) {
+			halfSeparation[j] = Double.POSITIVE_INFINITY;
+		}
+		for(int j = 0; j < k; j++) {
+			for(int h = j + 1; h < k; h++) {
+				double half = previous[j].getDistance(previous[h]) / 2;
+				computed++;
+				if(!(half >= halfSeparation[j]))
+					halfSeparation[j] = half;
+				if(!(half >= halfSeparation[h]))
+					halfSeparation[h] = half;
+			}
+		}
+		computedDistances.addAndGet(computed);
+	}
+
+	/**
+	 * Calcola il cluster piu' vicino per le righe nell'intervallo [from, to), memorizzandone
+	 * l'indice in nearest e in distances il limite superiore alla distanza dal suo centroide
+	 * (la distanza esatta se e' stata calcolata). Il metodo legge il {@link ClusterSet} senza modificarlo e scrive
+	 * solo le posizioni dell'intervallo, quindi puo' essere eseguito in parallelo su
+	 * intervalli disgiunti.
+	 * 
+	 * @param data Tabella delle transazioni
+	 * @param C Insieme dei cluster
+	 * @param nearest Vettore dei risultati
+	 * @param distances Vettore delle distanze, null se non richieste
+	 * @param from Prima riga (inclusa)
+	 * @param to Ultima riga (esclusa)
+	 */
+	void assign(Data data, ClusterSet C, int nearest[], double distances[], int from, int to)
+	{
+		int k = C.i;
+		long computed = 0;
+		long skipped = 0;
+		for(int i = from; i < to; i++) {
+			int a = C.assignment[i];
+			if(a >= 0) {
+				double u = upper[i] + drift[a];
+				double l = lower[i] - (a == maxDriftIndex ? secondMaxDrift : maxDrift);
+				double bound = Math.max(halfSeparation[a], l);
+				upper[i] = u;
+				lower[i] = l;
+				if(u < bound) {
+					nearest[i] = a;
+					skipped += k;
+					continue;
+				}
+				u = C.get(a).getCentroid().getDistance(data, i);
+				computed++;
+				upper[i] = u;
+				if(u < bound) {
+					nearest[i] = a;
+					skipped += k - 1;
+					continue;
+				}
+				nearest[i] = scan(data, i, C, a, u);
+				computed += k - 1;
+			} else {
+				nearest[i] = scan(data, i, C, -1, 0);
+				computed += k;
+			}
+		}
+		if(distances != null)
+			System.arraycopy(upper, from, distances, from, to - from);
+		computedDistances.addAndGet(computed);
+		skippedDistances.addAndGet(skipped);
+	}
+
+	/**
+	 * Calcola la distanza della riga id da tutti i centroidi, aggiornandone i limiti.
+	 * L'ordine dei confronti e' lo stesso di {@link ClusterSet#nearestClusterIndex(Data, int)}.
+	 * 
+	 * @param data Tabella delle transazioni
+	 * @param id Indice della riga
+	 * @param C Insieme dei cluster
+	 * @param known Indice di un cluster la cui distanza e' gia' nota, -1 se nessuna
+	 * @param knownDistance Distanza dal centroide del cluster known
+	 * @return Indice del cluster piu' vicino
+	 */
+	private int scan(Data data, int id, ClusterSet C, int known, double knownDistance)
+	{
+		double best = known == 0 ? knownDistance : C.get(0).getCentroid().getDistance(data, id);
+		double second = Double.POSITIVE_INFINITY;
+		int index = 0;
+		for(int j = 1; j < C.i; j++) {
+			double distance = known == j ? knownDistance : C.get(j).getCentroid().getDistance(data, id);
+			if(distance < best) {
+				second = best;
+				best = distance;
+				index = j;
+			} else if(distance < second) {
+				second = distance;
+			}
+		}
+		upper[id] = best;
+		lower[id] = second;
+		return index;
+	}
+
+	/**
+	 * Restituisce il numero di distanze calcolate.
+	 * 
+	 * @return numero di distanze calcolate, comprese quelle tra centroidi
+	 */
+	long getComputedDistances()
+	{
+		return computedDistances.get();
+	}
+
+	/**
+	 * Restituisce il numero di distanze tra righe e centroidi che l'assegnazione esatta
+	 * avrebbe calcolato e che sono state evitate grazie ai limiti.
+	 * 
+	 * @return numero di distanze evitate
+	 */
+	long getSkippedDistances()
+	{
+		return skippedDistances.get();
+	}
+}
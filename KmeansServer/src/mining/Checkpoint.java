@@ -0,0 +1,126 @@
+package mining;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import data.Data;
+import data.Tuple;
+
+/**
+ * La classe salva e legge lo stato di un'esecuzione di {@link KMeansMiner#kmeans(Data)}
+ * al termine di un'iterazione, in modo che l'esecuzione possa essere ripresa (si veda
+ * {@link KMeansMiner#resume(Data, String)}) dopo un'interruzione.
+ * Il file contiene {@link #MAGIC} e {@link #VERSION} (int), il numero di iterazioni
+ * eseguite (int) e il tempo trascorso in millisecondi (long), seguiti da centroidi e
+ * appartenenza delle righe nel formato di {@link ModelFile}. Come per i modelli, la
+ * scrittura e' atomica.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+final class Checkpoint {
+
+	/**
+	 * Primi quattro byte del file ("KCKP").
+	 */
+	static final int MAGIC = 0x4B434B50;
+
+	/**
+	 * Versione del formato.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Cluster ripristinati, con appartenenza e statistiche.
+	 */
+	private ClusterSet C;
+
+	/**
+	 * Numero di iterazioni eseguite prima del salvataggio.
+	 */
+	private int iteration;
+
+	/**
+	 * Tempo trascorso dall'inizio dell'esecuzione, in millisecondi.
+	 */
+	private long elapsedMillis;
+
+	private Checkpoint(ClusterSet C, int iteration, long elapsedMillis)
+	{
+		this.C = C;
+		this.iteration = iteration;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Salva lo stato dell'esecuzione nel file fileName.
+	 *
+	 * @param C Cluster al termine dell'iterazione, con l'appartenenza delle righe
+	 * @param iteration Numero di iterazioni eseguite
+	 * @param elapsedMillis Tempo trascorso dall'inizio dell'esecuzione
+	 * @param fileName Nome del file
+	 * @throws IOException
+	 */
+	static void write(final ClusterSet C, final int iteration, final long elapsedMillis, String fileName) throws IOException
+	{
+		ModelFile.write(fileName, new ModelFile.Content() {
+			public void writeTo(DataOutputStream out) throws IOException {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(iteration);
+				out.writeLong(elapsedMillis);
+				ModelFile.write(C, out);
+			}
+		});
+	}
+
+	/**
+	 * Legge lo stato salvato nel file fileName e lo ripristina sulla tabella data.
+	 *
+	 * @param fileName Nome del file
+	 * @param data Tabella su cui era in esecuzione l'algoritmo
+	 * @return stato letto
+	 * @throws IOException se il file non e' nel formato atteso, e' incompleto o non
+	 * 		corrisponde a data
+	 */
+	static Checkpoint read(String fileName, Data data) throws IOException
+	{
+		ByteBuffer in = ModelFile.map(fileName);
+		try {
+			if(in.getInt() != MAGIC)
+				throw new IOException(fileName + " non contiene un checkpoint");
+			int version = in.getInt();
+			if(version != VERSION)
+				throw new IOException("versione del checkpoint non supportata: " + version);
+			int iteration = in.getInt();
+			long elapsedMillis = in.getLong();
+			ClusterSet saved = ModelFile.read(in, data);
+			if(saved.i != saved.C.length || saved.assignment == null)
+				throw new IOException("checkpoint incompleto");
+			Tuple centroids[] = new Tuple[saved.i];
+			for(int j = 0; j < saved.i; j++)
+				centroids[j] = saved.get(j).getCentroid();
+			ClusterSet C = new ClusterSet(saved.C.length);
+			C.restore(data, centroids, saved.assignment);
+			return new Checkpoint(C, iteration, elapsedMillis);
+		} catch(BufferUnderflowException e) {
+			throw new IOException("checkpoint incompleto");
+		}
+	}
+
+	ClusterSet getC()
+	{
+		return C;
+	}
+
+	int getIteration()
+	{
+		return iteration;
+	}
+
+	long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+}
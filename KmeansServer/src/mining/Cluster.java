@@ -1,5 +1,10 @@
 package mining;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
 
@@ -11,13 +16,31 @@ import data.*;
  * di interi rappresentanti le righe della tabella {@link data.Data} appartenenti al
  * cluster.
  * Il centroide e' modellato usando la classe {@link data.Tuple}, mentre l'insieme
- * delle tuple appartenenti al cluster e' modellato usando un insieme {@link java.util.Set}
+ * delle tuple appartenenti al cluster e' modellato usando una bitmap compressa
+ * ({@link RowBitmap}), aggiornata da {@link ClusterSet} a partire dalla propria
+ * assegnazione riga-cluster.
+ * Con la serializzazione Java il cluster e' salvato nel formato originale della classe,
+ * con l'appartenenza come insieme {@link java.util.Set} di interi, in modo che i file
+ * salvati in precedenza possano ancora essere letti.
  * 
  * @author Veronico, Mazzone, Sgaramella
  */
-@SuppressWarnings("serial")
 public class Cluster implements Serializable {
 	
+	/**
+	 * Identificativo di versione calcolato sulla classe originale.
+	 */
+	private static final long serialVersionUID = 228388536214968627L;
+	
+	/**
+	 * Campi salvati con la serializzazione Java: il centroide e l'insieme delle righe
+	 * appartenenti al Cluster (si veda {@link #writeObject(ObjectOutputStream)}).
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("centroid", Tuple.class),
+		new ObjectStreamField("clusteredData", Set.class)
+	};
+	
 	/**
 	 * Attributo rappresentante la tupla centroide del Cluster.
 	 */
@@ -26,18 +49,38 @@ public class Cluster implements Serializable {
 	/**
 	 * Insieme delle righe della tabella Data appartenenti al Cluster.
 	 */
-	Set<Integer> clusteredData;
+	transient RowBitmap clusteredData;
+	
+	/**
+	 * Statistiche sufficienti delle righe appartenenti al Cluster, aggiornate ad ogni
+	 * aggiunta o rimozione di una riga e utilizzate per il calcolo del centroide.
+	 * Non vengono salvate su file insieme al Cluster.
+	 */
+	private transient ClusterStatistics statistics;
 
 	/**
 	 * Il costruttore si occupa di inizializzare i dati membro. In particolare
 	 * verra' inizializzata la tupla centroide (attraverso il parametro)
-	 * e verra' inizializzato l'insieme {@link #clusteredData}
+	 * e verra' inizializzato l'insieme {@link #clusteredData} con le relative statistiche
+	 * 
+	 * @param centroid Tupla rappresentante il centroide del Cluster
+	 * @param data La tabella {@link data.Data} a cui appartengono le righe del Cluster
+	 */
+	Cluster(Tuple centroid, Data data){
+		this(centroid, new ClusterStatistics(data));
+	}
+	
+	/**
+	 * Inizializza il Cluster con il centroide e le statistiche specificate.
+	 * L'insieme {@link #clusteredData} e' inizialmente vuoto.
 	 * 
 	 * @param centroid Tupla rappresentante il centroide del Cluster
+	 * @param statistics Statistiche sufficienti delle righe del Cluster
 	 */
-	Cluster(Tuple centroid){
+	Cluster(Tuple centroid, ClusterStatistics statistics){
 		this.centroid=centroid;
-		clusteredData=new HashSet<Integer>();
+		clusteredData=new RowBitmap();
+		this.statistics=statistics;
 	}
 
 	/**
@@ -49,14 +92,12 @@ public class Cluster implements Serializable {
 
 	/**
 	 * Calcola il centroide per questo cluster utilizzando il metodo
-	 * {@link data.Item#update(Data, Set)}
+	 * {@link data.Tuple#update(ClusterStatistics)}
 	 * 
 	 * @param data La tabella {@link data.Data} su cui effettuare il calcolo.
 	 */
 	void computeCentroid(Data data){
-		for(int i=0;i<centroid.getLength();i++){
-			centroid.get(i).update(data,clusteredData);
-		}
+		centroid.update(statistics);
 	}
 	
 	/**
@@ -66,13 +107,16 @@ public class Cluster implements Serializable {
 	 * Cio' e' vero solo nel caso in cui la tupla identificata da id ha cambiato cluster.
 	 * Quindi l'aggiunta all'insieme {@link #clusteredData} si verifica solo in questo caso.
 	 * 
+	 * @param data La tabella {@link data.Data} a cui appartiene la riga
 	 * @param id Identificativo rappresentante la riga della tabella {@link data.Data}
 	 * 			 appertenente al cluster
 	 * 
 	 */
-	boolean addData(int id){
-		return clusteredData.add(id);
-
+	boolean addData(Data data, int id){
+		if(!clusteredData.set(id))
+			return false;
+		statistics.add(data, id);
+		return true;
 	}
 
 	/**
@@ -82,15 +126,19 @@ public class Cluster implements Serializable {
 	 * Ritorna vero se la transazione e' clusterizzata, falso altrimenti.
 	 */
 	boolean contain(int id){
-		return clusteredData.contains(id);
+		return clusteredData.get(id);
 	}
 
 	/**
 	 * Il metodo elimina la tupla identificata da id dall'insieme {@link #clusteredData} nel
 	 * momento in cui questa cambia cluster.
+	 * 
+	 * @param data La tabella {@link data.Data} a cui appartiene la riga
+	 * @param id Identificativo della riga da rimuovere
 	 */
-	void removeTuple(int id){
-		clusteredData.remove(id);
+	void removeTuple(Data data, int id){
+		if(clusteredData.clear(id))
+			statistics.remove(data, id);
 	}
 
 	/**
@@ -120,16 +168,15 @@ public class Cluster implements Serializable {
 		for(int i=0;i<centroid.getLength();i++)
 			str+=centroid.get(i)+ " ";
 		str+=")\nExamples:\n";
-		int array[] = new int[clusteredData.size()];
-		int k = 0;
-		for(Object o : clusteredData.toArray()) {
-			array[k++] = Integer.parseInt(o.toString());
-		}		
+		int array[] = clusteredData.toArray();
 		for(int i=0;i<array.length;i++){
 			str+="[";
 			for(int j=0;j<data.getNumberOfAttributes();j++)
 				str+=data.getAttributeValue(array[i], j)+" ";
-			str+="] dist = "+getCentroid().getDistance(data.getItemSet(array[i]))+"\n";
+			str+="] dist = "+getCentroid().getDistance(data, array[i]);
+			if(data.getWeight(array[i]) > 1)
+				str+=" x"+data.getWeight(array[i]);
+			str+="\n";
 
 		}
 		str+="AvgDistance="+getCentroid().avgDistance(data, array) + "\n";
@@ -138,4 +185,43 @@ public class Cluster implements Serializable {
 
 	}
 
+	/**
+	 * Salva il centroide e l'insieme delle righe del Cluster, come {@link HashSet} di interi.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		int members[] = clusteredData.toArray();
+		Set<Integer> set = new HashSet<Integer>(members.length * 2);
+		for(int id : members)
+			set.add(id);
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("centroid", centroid);
+		fields.put("clusteredData", set);
+		out.writeFields();
+	}
+
+	/**
+	 * Legge il centroide e l'insieme delle righe del Cluster, convertendolo in {@link RowBitmap}.
+	 * Le statistiche non sono ricostruite, come per i cluster letti da {@link ModelFile}.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		ObjectInputStream.GetField fields = in.readFields();
+		Object set = fields.get("clusteredData", null);
+		centroid = (Tuple) fields.get("centroid", null);
+		if(centroid == null || !(set instanceof Set))
+			throw new InvalidObjectException("cluster incompleto");
+		int members[] = new int[((Set<?>) set).size()];
+		int n = 0;
+		for(Object id : (Set<?>) set) {
+			if(!(id instanceof Integer) || (Integer) id < 0)
+				throw new InvalidObjectException("indice di riga non valido: " + id);
+			members[n++] = (Integer) id;
+		}
+		Arrays.sort(members);
+		clusteredData = new RowBitmap();
+		for(int id : members)
+			clusteredData.set(id);
+	}
+
 }
@@ -1,9 +1,14 @@
 package mining;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 
 import data.Data;
 import data.OutOfRangeSampleSize;
+import data.SAMPLING_TYPE;
 import data.Tuple;
 
 /**
@@ -16,9 +21,14 @@ import data.Tuple;
  * @author Veronico, Mazzone, Sgaramella
  *
  */
-@SuppressWarnings("serial")
 public class ClusterSet implements Serializable{
 
+	/**
+	 * Identificativo di versione calcolato sulla classe originale, mantenuto in modo che
+	 * i cluster salvati in precedenza con la serializzazione Java possano ancora essere letti.
+	 */
+	private static final long serialVersionUID = 6341206266343347468L;
+
 	/**
 	 * Attributo che rappresenta un vettore di Cluster e rappresenta il ClusterSet
 	 */
@@ -30,6 +40,21 @@ public class ClusterSet implements Serializable{
 	 * Esso e' inizializzato a 0
 	 */
 	int i=0;
+	
+	/**
+	 * Assegnazione delle righe di {@link Data} ai cluster: assignment[id] e' l'indice in
+	 * {@link #C} del cluster a cui appartiene la riga id, -1 se la riga non e' ancora
+	 * stata assegnata. L'appartenenza mantenuta da ciascun {@link Cluster} e' derivata
+	 * da questo vettore tramite {@link #assign(int, int)}.
+	 * Non viene salvata con la serializzazione Java: e' ricostruita alla lettura
+	 * dall'appartenenza dei cluster.
+	 */
+	transient int assignment[];
+	
+	/**
+	 * Tabella le cui righe sono assegnate ai cluster. Non viene salvata su file.
+	 */
+	private transient Data data;
 
 	/**
 	 * Crea il vettore che rappresenta il ClusterSet assegnadogli dimensione k
@@ -69,23 +94,54 @@ public class ClusterSet implements Serializable{
 	 * Sceglie i centroidi, crea un cluster per ogni centroide e lo memorizza in C
 	 * 
 	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * @param type Strategia di scelta dei centroidi (si veda {@link Data#sampling(int, SAMPLING_TYPE, long)})
+	 * @param seed Seme per la scelta dei centroidi
 	 * 
-	 * @throws OutOfRangeSampleSize
+	 * @throws OutOfRangeSampleSize se le righe distinte della tabella sono meno dei cluster
 	 */
-	void initializeCentroids(Data data) throws OutOfRangeSampleSize
+	void initializeCentroids(Data data, SAMPLING_TYPE type, long seed) throws OutOfRangeSampleSize
 	{
-		try 
+		this.data = data;
+		assignment = new int[data.getNumberOfExamples()];
+		Arrays.fill(assignment, -1);
+		int centroidIndexes[]=data.sampling(C.length, type, seed);
+		for(int i=0;i<centroidIndexes.length;i++)
 		{
-			int centroidIndexes[]=data.sampling(C.length);
-			for(int i=0;i<centroidIndexes.length;i++)
-			{
-				Tuple centroidI=data.getItemSet(centroidIndexes[i]);
-				add(new Cluster(centroidI));
-			}
+			Tuple centroidI=data.getItemSet(centroidIndexes[i]);
+			add(new Cluster(centroidI, data));
 		}
-		catch(OutOfRangeSampleSize ex)
-		{
-			ex.toString();
+	}
+
+	/**
+	 * Crea un cluster per ciascuno dei centroidi specificati e lo memorizza in C.
+	 * 
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * @param centroids Centroidi iniziali (sono copiati), tanti quanti la dimensione di C
+	 */
+	void initializeCentroids(Data data, Tuple centroids[])
+	{
+		this.data = data;
+		assignment = new int[data.getNumberOfExamples()];
+		Arrays.fill(assignment, -1);
+		for(int i=0;i<centroids.length;i++)
+			add(new Cluster(centroids[i].copy(), data));
+	}
+
+	/**
+	 * Ripristina lo stato di un'esecuzione interrotta: crea un cluster per ciascuno dei
+	 * centroidi specificati e assegna ogni riga al cluster indicato da assignment,
+	 * ricostruendo l'appartenenza e le statistiche dei cluster.
+	 * 
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * @param centroids Centroidi (sono copiati), tanti quanti la dimensione di C
+	 * @param assignment Indice del cluster di ciascuna riga di data, -1 se non assegnata
+	 */
+	void restore(Data data, Tuple centroids[], int assignment[])
+	{
+		initializeCentroids(data, centroids);
+		for(int id = 0; id < assignment.length; id++) {
+			if(assignment[id] >= 0)
+				assign(id, assignment[id]);
 		}
 	}
 
@@ -98,16 +154,70 @@ public class ClusterSet implements Serializable{
 	 * @return Cluster piu' vicino alla tupla passata come paramentro.
 	 */
 	Cluster nearestCluster(Tuple tuple)
+	{
+		return get(nearestClusterIndex(tuple));
+	}
+	
+	/**
+	 * Restituisce l'indice in {@link #C} del cluster con centroide piu' vicino alla tupla.
+	 * 
+	 * @param tuple Tupla da considerare.
+	 * 
+	 * @return Indice del cluster piu' vicino alla tupla passata come parametro.
+	 */
+	int nearestClusterIndex(Tuple tuple)
 	{
 		double currentDistance = tuple.getDistance(C[0].getCentroid());
 		int indexCluster = 0;
 		for(int j = 1; j < i; j++) {
-			if(tuple.getDistance(C[j].getCentroid()) < currentDistance) {
-				currentDistance = tuple.getDistance(C[j].getCentroid());
+			double distance = tuple.getDistance(C[j].getCentroid());
+			if(distance < currentDistance) {
+				currentDistance = distance;
 				indexCluster = j;
 			}
 		}
-		return get(indexCluster);
+		return indexCluster;
+	}
+	
+	/**
+	 * Restituisce l'indice in {@link #C} del cluster con centroide piu' vicino alla riga id
+	 * di data, con lo stesso risultato di nearestClusterIndex(data.getItemSet(id)) ma senza
+	 * creare oggetti (si veda {@link Tuple#getDistance(Data, int)}).
+	 * 
+	 * @param data Tabella a cui appartiene la riga
+	 * @param id Indice della riga
+	 * 
+	 * @return Indice del cluster piu' vicino alla riga
+	 */
+	int nearestClusterIndex(Data data, int id)
+	{
+		return nearestClusterIndex(data, id, null);
+	}
+	
+	/**
+	 * Come {@link #nearestClusterIndex(Data, int)}, memorizzando inoltre in distances[id]
+	 * la distanza della riga dal centroide piu' vicino.
+	 * 
+	 * @param data Tabella a cui appartiene la riga
+	 * @param id Indice della riga
+	 * @param distances Vettore delle distanze, null se non richieste
+	 * 
+	 * @return Indice del cluster piu' vicino alla riga
+	 */
+	int nearestClusterIndex(Data data, int id, double distances[])
+	{
+		double currentDistance = C[0].getCentroid().getDistance(data, id);
+		int indexCluster = 0;
+		for(int j = 1; j < i; j++) {
+			double distance = C[j].getCentroid().getDistance(data, id);
+			if(distance < currentDistance) {
+				currentDistance = distance;
+				indexCluster = j;
+			}
+		}
+		if(distances != null)
+			distances[id] = currentDistance;
+		return indexCluster;
 	}
 	
 	/**
@@ -120,31 +230,88 @@ public class ClusterSet implements Serializable{
 	 */
 	Cluster currentCluster(int id)
 	{
-		int index = 0;
-		boolean found = false;
-		for(int j = 0; j < i; j++) {
-			if(get(j).contain(id)) {
-				found = true;
-				index = j;
-				break;
-			}
-		}
-		if(found == true) {
-			return get(index);
-		}else {
+		if(assignment == null || assignment[id] < 0) {
 			return null;
 		}
+		return get(assignment[id]);
+	}
+	
+	/**
+	 * Assegna la riga id al cluster in posizione clusterIndex, rimuovendola dal cluster
+	 * a cui apparteneva in precedenza.
+	 * 
+	 * @param id Indice di una riga della tabella {@link data.Data}
+	 * @param clusterIndex Indice in {@link #C} del nuovo cluster della riga
+	 * 
+	 * @return vero se la riga ha cambiato cluster, falso altrimenti
+	 */
+	boolean assign(int id, int clusterIndex)
+	{
+		int oldIndex = assignment[id];
+		if(oldIndex == clusterIndex) {
+			return false;
+		}
+		if(oldIndex >= 0) {
+			C[oldIndex].removeTuple(data, id);
+		}
+		C[clusterIndex].addData(data, id);
+		assignment[id] = clusterIndex;
+		return true;
 	}
 	
 	/**
 	 * Calcola il nuovo centroide per ciascun cluster in C
 	 * 
 	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * 
+	 * @return Spostamento massimo di un centroide (distanza tra centroide precedente e nuovo)
 	 */
-	void updateCentroids(Data data)
+	double updateCentroids(Data data)
 	{
-		for(int j=0;j<i;j++)
+		double shift = 0;
+		for(int j=0;j<i;j++) {
+			Tuple previous = get(j).getCentroid().copy();
 			get(j).computeCentroid(data);
+			shift = Math.max(shift, previous.getDistance(get(j).getCentroid()));
+		}
+		return shift;
+	}
+	
+	/**
+	 * Calcola la somma dei quadrati delle distanze di ciascuna riga assegnata
+	 * dal centroide del proprio cluster, moltiplicati per il peso della riga
+	 * (si veda {@link Data#getWeight(int)}).
+	 * 
+	 * @param data La tabella rappresentata dalla classe {@link data.Data}
+	 * 
+	 * @return Somma dei quadrati delle distanze (SSE)
+	 */
+	double sse(Data data)
+	{
+		double sse = 0;
+		for(int id=0;id<assignment.length;id++) {
+			if(assignment[id] >= 0) {
+				double distance = C[assignment[id]].getCentroid().getDistance(data, id);
+				sse += data.getWeight(id) * distance * distance;
+			}
+		}
+		return sse;
+	}
+	
+	/**
+	 * Stima la memoria occupata dai cluster: 16 byte per ciascun valore dei centroidi,
+	 * l'appartenenza di ciascun cluster (si veda {@link RowBitmap#getSizeInBytes()}) e
+	 * 4 byte per ciascuna riga assegnata
+	 * (le intestazioni degli oggetti non sono considerate).
+	 * 
+	 * @return numero di byte stimato
+	 */
+	public long getSizeInBytes()
+	{
+		long bytes = assignment == null ? 0 : 4L * assignment.length;
+		for(int j = 0; j < i; j++)
+			bytes += 16L * get(j).getCentroid().getLength() + get(j).clusteredData.getSizeInBytes();
+		return bytes;
 	}
 	
 	/**
@@ -181,4 +348,36 @@ public class ClusterSet implements Serializable{
 		}
 		return str;		
 	}
+
+	/**
+	 * Legge i cluster serializzati e ricostruisce {@link #assignment} dall'appartenenza di
+	 * ciascun cluster. Il numero di righe e' quello dell'indice piu' alto assegnato; se
+	 * nessuna riga e' assegnata l'assegnazione resta assente.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		if(C == null || i < 0 || i > C.length)
+			throw new InvalidObjectException("numero di cluster non valido");
+		int members[][] = new int[i][];
+		int rows = 0;
+		for(int j = 0; j < i; j++) {
+			if(C[j] == null)
+				throw new InvalidObjectException("cluster " + j + " assente");
+			members[j] = C[j].clusteredData.toArray();
+			if(members[j].length > 0)
+				rows = Math.max(rows, members[j][members[j].length - 1] + 1);
+		}
+		if(rows == 0)
+			return;
+		assignment = new int[rows];
+		Arrays.fill(assignment, -1);
+		for(int j = 0; j < i; j++) {
+			for(int id : members[j]) {
+				if(assignment[id] != -1)
+					throw new InvalidObjectException("riga " + id + " assegnata a piu' cluster");
+				assignment[id] = j;
+			}
+		}
+	}
 }
@@ -0,0 +1,168 @@
+package mining;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * La classe riassume l'esecuzione di {@link KMeansMiner#coresetKmeans(String, int, boolean)}:
+ * righe lette, dimensione del coreset, esito di k-means sul coreset e, se le righe della
+ * tabella sono state assegnate ai cluster, SSE e dimensione dei cluster sulla tabella completa.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class CoresetReport implements Serializable {
+
+	/**
+	 * Numero di righe lette dalla base di dati.
+	 */
+	private long rows;
+
+	/**
+	 * Numero di righe del coreset.
+	 */
+	private int coresetSize;
+
+	/**
+	 * Tempo impiegato per la lettura della tabella e la costruzione del coreset, in millisecondi.
+	 */
+	private long buildMillis;
+
+	/**
+	 * Esito dell'algoritmo k-means sul coreset.
+	 */
+	private KMeansReport kmeans;
+
+	/**
+	 * SSE dei centroidi sulla tabella completa, NaN se le righe non sono state assegnate.
+	 */
+	private double sse = Double.NaN;
+
+	/**
+	 * Numero di righe della tabella assegnate a ciascun cluster, null se le righe non sono
+	 * state assegnate.
+	 */
+	private long clusterSizes[];
+
+	/**
+	 * Tempo totale impiegato in millisecondi.
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * Inizializza il riepilogo.
+	 *
+	 * @param rows Numero di righe lette
+	 * @param coresetSize Numero di righe del coreset
+	 * @param buildMillis Tempo di costruzione del coreset in millisecondi
+	 * @param kmeans Esito di k-means sul coreset
+	 */
+	CoresetReport(long rows, int coresetSize, long buildMillis, KMeansReport kmeans)
+	{
+		this.rows = rows;
+		this.coresetSize = coresetSize;
+		this.buildMillis = buildMillis;
+		this.kmeans = kmeans;
+	}
+
+	/**
+	 * Registra l'esito dell'assegnazione delle righe della tabella ai cluster.
+	 *
+	 * @param sse SSE dei centroidi sulla tabella completa
+	 * @param clusterSizes Numero di righe assegnate a ciascun cluster
+	 */
+	void setAssignment(double sse, long clusterSizes[])
+	{
+		this.sse = sse;
+		this.clusterSizes = clusterSizes;
+	}
+
+	/**
+	 * Registra il tempo totale dell'esecuzione.
+	 *
+	 * @param elapsedMillis Tempo totale in millisecondi
+	 */
+	void complete(long elapsedMillis)
+	{
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Ritorna il numero di righe lette.
+	 * 
+	 * @return {@link #rows}
+	 */
+	public long getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Ritorna il numero di righe del coreset.
+	 * 
+	 * @return {@link #coresetSize}
+	 */
+	public int getCoresetSize()
+	{
+		return coresetSize;
+	}
+
+	/**
+	 * Ritorna il tempo di costruzione del coreset.
+	 * 
+	 * @return {@link #buildMillis}
+	 */
+	public long getBuildMillis()
+	{
+		return buildMillis;
+	}
+
+	/**
+	 * Ritorna l'esito di k-means sul coreset.
+	 * 
+	 * @return {@link #kmeans}
+	 */
+	public KMeansReport getKMeansReport()
+	{
+		return kmeans;
+	}
+
+	/**
+	 * Ritorna l'SSE dei centroidi sulla tabella completa.
+	 * 
+	 * @return {@link #sse}
+	 */
+	public double getSse()
+	{
+		return sse;
+	}
+
+	/**
+	 * Ritorna il numero di righe della tabella assegnate a ciascun cluster.
+	 * 
+	 * @return {@link #clusterSizes}
+	 */
+	public long[] getClusterSizes()
+	{
+		return clusterSizes;
+	}
+
+	/**
+	 * Ritorna il tempo totale impiegato.
+	 * 
+	 * @return {@link #elapsedMillis}
+	 */
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	public String toString()
+	{
+		String str = rows + " righe ridotte a " + coresetSize + " in " + buildMillis + " ms, k-means: "
+				+ kmeans.getNumberOfIterations() + " iterazioni, sse coreset=" + kmeans.getSse();
+		if(clusterSizes != null)
+			str += ", sse tabella=" + sse + ", cluster=" + Arrays.toString(clusterSizes);
+		return str + ", totale " + elapsedMillis + " ms";
+	}
+}
@@ -0,0 +1,107 @@
+package mining;
+
+import java.io.Serializable;
+
+/**
+ * La classe riporta i dati di una singola iterazione di {@link KMeansMiner#kmeans(data.Data)}.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class IterationReport implements Serializable {
+
+	/**
+	 * Numero dell'iterazione (a partire da 1).
+	 */
+	private int iteration;
+
+	/**
+	 * Numero di righe che hanno cambiato cluster.
+	 */
+	private int moved;
+
+	/**
+	 * Somma dei quadrati delle distanze di ogni riga dal centroide piu' vicino, calcolata
+	 * durante l'assegnazione con i centroidi precedenti l'aggiornamento. NaN con
+	 * l'assegnazione accelerata ({@link BoundedAssignment}), che non calcola tutte le distanze.
+	 */
+	private double sse;
+
+	/**
+	 * Limite superiore a {@link #sse}: con l'assegnazione accelerata le distanze non calcolate
+	 * sono sostituite dal loro limite superiore, altrimenti coincide con {@link #sse}.
+	 */
+	private double sseUpperBound;
+
+	/**
+	 * Spostamento massimo di un centroide durante l'iterazione.
+	 */
+	private double centroidShift;
+
+	/**
+	 * Millisecondi trascorsi dall'inizio dell'esecuzione al termine dell'iterazione.
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * Inizializza i dati dell'iterazione.
+	 * 
+	 * @param iteration Numero dell'iterazione
+	 * @param moved Numero di righe che hanno cambiato cluster
+	 * @param sse Somma dei quadrati delle distanze dai centroidi, NaN se non calcolata
+	 * @param sseUpperBound Limite superiore alla somma dei quadrati delle distanze
+	 * @param centroidShift Spostamento massimo di un centroide
+	 * @param elapsedMillis Millisecondi trascorsi dall'inizio dell'esecuzione
+	 */
+	IterationReport(int iteration, int moved, double sse, double sseUpperBound, double centroidShift, long elapsedMillis)
+	{
+		this.iteration = iteration;
+		this.moved = moved;
+		this.sse = sse;
+		this.sseUpperBound = sseUpperBound;
+		this.centroidShift = centroidShift;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public int getIteration()
+	{
+		return iteration;
+	}
+
+	public int getMoved()
+	{
+		return moved;
+	}
+
+	/**
+	 * @return {@link #sse}, NaN con l'assegnazione accelerata
+	 */
+	public double getSse()
+	{
+		return sse;
+	}
+
+	/**
+	 * @return {@link #sseUpperBound}
+	 */
+	public double getSseUpperBound()
+	{
+		return sseUpperBound;
+	}
+
+	public double getCentroidShift()
+	{
+		return centroidShift;
+	}
+
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	public String toString()
+	{
+		return iteration + ": spostate=" + moved + (Double.isNaN(sse) ? " sse<=" + sseUpperBound : " sse=" + sse)
+				+ " spostamento=" + centroidShift + " ms=" + elapsedMillis;
+	}
+}
@@ -1,8 +1,32 @@
 package mining;
 
+import data.Attribute;
+import data.BlockHandler;
+import data.ClusterStatistics;
+import data.CoresetBuilder;
 import data.Data;
 import data.OutOfRangeSampleSize;
+import data.SAMPLING_TYPE;
+import data.Tuple;
+import database.DatabaseConnectionException;
+import database.DbAccess;
+import database.EmptySetException;
+import database.NoValueException;
+import database.TableData;
+import database.TableSchema;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * La classe KmeansMiner e' la classe che si occupa di effettuare la scoperta
@@ -15,6 +39,8 @@ import java.io.*;
  * La logica mantenuta nel salvataggio (e quindi nella lettura) dei file utilizzati e'
  * la seguente:
  * nome_tabella_database + numero di cluster da scoprire
+ * I cluster sono salvati nel formato binario descritto in {@link ModelFile}; i file salvati
+ * in precedenza con la serializzazione Java possono ancora essere letti.
  *  
  * @author Veronico, Mazzone, Sgaramella
  *
@@ -32,6 +58,53 @@ public class KMeansMiner implements Serializable
 	 */
 	private ClusterSet C; 
 	
+	/**
+	 * Numero di thread utilizzati nel passo di assegnazione delle righe ai cluster.
+	 * Con valore 1 (default) l'assegnazione e' sequenziale.
+	 */
+	private int parallelism = 1;
+	
+	/**
+	 * Indica se il passo di assegnazione deve evitare, tramite i limiti mantenuti da
+	 * {@link BoundedAssignment}, il calcolo delle distanze da centroidi che non possono
+	 * essere i piu' vicini. Il risultato coincide con quello dell'assegnazione esatta.
+	 */
+	private boolean boundedAssignment = false;
+	
+	/**
+	 * Strategia di scelta dei centroidi iniziali (default: scelta casuale uniforme).
+	 */
+	private SAMPLING_TYPE samplingType = SAMPLING_TYPE.RANDOM;
+	
+	/**
+	 * Seme per la scelta dei centroidi iniziali: a parita' di seme e di dati 
+	 * l'algoritmo produce lo stesso risultato.
+	 */
+	private long seed = System.currentTimeMillis();
+	
+	/**
+	 * Numero di distanze evitate dall'ultima esecuzione di {@link #kmeans(Data)} con
+	 * {@link #boundedAssignment} attivo.
+	 */
+	private long skippedDistances;
+	
+	/**
+	 * Regole di arresto di {@link #kmeans(Data)} in aggiunta alla convergenza
+	 * (per default nessuna).
+	 */
+	private StoppingCriteria stoppingCriteria = new StoppingCriteria();
+	
+	/**
+	 * File in cui {@link #kmeans(Data)} salva periodicamente lo stato dell'esecuzione (si
+	 * veda {@link Checkpoint}), null se lo stato non e' salvato.
+	 */
+	private String checkpointFile;
+	
+	/**
+	 * Tempo minimo in millisecondi tra due salvataggi dello stato dell'esecuzione.
+	 */
+	private long checkpointMillis;
+	
 	/**
 	 * Il costruttore si occupa di inizializzare il ClusterSet in base
 	 * al numero di Cluster che si vuole scoprire.
@@ -49,6 +122,8 @@ public class KMeansMiner implements Serializable
 	 * la logica descritta precedentemente (vedi descrizione della classe).
 	 * In questo caso il ClusterSet conterra' l'insieme di Cluster dovuto a precedenti
 	 * attivita' di scoperta.
+	 * Il file e' mappato in memoria e letto secondo il formato di {@link ModelFile}; se non
+	 * e' in tale formato e' letto come oggetto serializzato.
 	 * 
 	 * @param fileName	Nome del file da leggere.
 	 * @throws FileNotFoundException
@@ -57,9 +132,19 @@ public class KMeansMiner implements Serializable
 	 */
 	public KMeansMiner(String fileName) throws FileNotFoundException, IOException, ClassNotFoundException
 	{
-		ObjectInputStream in = new ObjectInputStream(new FileInputStream(fileName));
-		this.C = (ClusterSet)in.readObject();
-		in.close();
+		if(!new File(fileName).isFile())
+			throw new FileNotFoundException(fileName);
+		ByteBuffer model = ModelFile.map(fileName);
+		if(ModelFile.isModelFile(model)) {
+			this.C = ModelFile.read(model);
+		} else {
+			ObjectInputStream in = new ObjectInputStream(new FileInputStream(fileName));
+			try {
+				this.C = (ClusterSet)in.readObject();
+			} finally {
+				in.close();
+			}
+		}
 	}
 	
 	/**
@@ -74,9 +159,105 @@ public class KMeansMiner implements Serializable
 	 */
 	public void salva(String fileName) throws FileNotFoundException, IOException
 	{
-		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(fileName));
-		out.writeObject(C);
-		out.close();
+		ModelFile.write(C, fileName);
+	}
+
+	/**
+	 * Richiede il salvataggio su file dei cluster scoperti al thread di scrittura writer e
+	 * ritorna senza attendere la scrittura su disco. I cluster non vanno modificati (ad
+	 * esempio con una nuova esecuzione di k-means) finche' il salvataggio non e' completato.
+	 * 
+	 * @param fileName Nome del file
+	 * @param writer Thread di scrittura
+	 * @return esito del salvataggio, completato quando il file e' su disco
+	 * @throws IOException se non e' possibile risolvere il percorso del file
+	 * @throws InterruptedException se l'attesa di un posto libero in writer e' interrotta
+	 */
+	public Future<File> salva(String fileName, ModelWriter writer) throws IOException, InterruptedException
+	{
+		return writer.submit(C, fileName);
+	}
+
+	/**
+	 * Imposta il numero di thread da utilizzare nel passo di assegnazione (STEP 2).
+	 * Il risultato dell'algoritmo non dipende dal valore scelto.
+	 * 
+	 * @param parallelism Numero di thread (almeno 1)
+	 */
+	public void setParallelism(int parallelism)
+	{
+		if(parallelism < 1)
+			throw new IllegalArgumentException("parallelism < 1");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Attiva o disattiva l'assegnazione accelerata tramite limiti sulle distanze
+	 * (si veda {@link BoundedAssignment}).
+	 * 
+	 * @param boundedAssignment vero per attivare l'assegnazione accelerata
+	 */
+	public void setBoundedAssignment(boolean boundedAssignment)
+	{
+		this.boundedAssignment = boundedAssignment;
+	}
+
+	/**
+	 * Imposta la strategia di scelta dei centroidi iniziali.
+	 * 
+	 * @param samplingType Strategia di scelta (si veda {@link SAMPLING_TYPE})
+	 */
+	public void setSamplingType(SAMPLING_TYPE samplingType)
+	{
+		this.samplingType = samplingType;
+	}
+
+	/**
+	 * Imposta il seme per la scelta dei centroidi iniziali.
+	 * 
+	 * @param seed Seme del generatore di numeri casuali
+	 */
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * Imposta le regole di arresto di {@link #kmeans(Data)}.
+	 * 
+	 * @param stoppingCriteria Regole di arresto (si veda {@link StoppingCriteria})
+	 */
+	public void setStoppingCriteria(StoppingCriteria stoppingCriteria)
+	{
+		this.stoppingCriteria = stoppingCriteria;
+	}
+
+	/**
+	 * Imposta il salvataggio periodico dello stato di {@link #kmeans(Data)} (centroidi,
+	 * appartenenza delle righe, iterazioni eseguite e tempo trascorso) nel file fileName,
+	 * al termine della prima iterazione che segue di almeno intervalMillis il salvataggio
+	 * precedente (o l'inizio dell'esecuzione). In caso di interruzione l'esecuzione puo'
+	 * essere ripresa con {@link #resume(Data, String)}, perdendo al piu' l'intervallo
+	 * specificato. Il file e' rimosso quando l'esecuzione termina.
+	 * 
+	 * @param fileName Nome del file, null per non salvare lo stato
+	 * @param intervalMillis Tempo minimo tra due salvataggi, 0 per salvare ad ogni iterazione
+	 */
+	public void setCheckpoint(String fileName, long intervalMillis)
+	{
+		this.checkpointFile = fileName;
+		this.checkpointMillis = intervalMillis;
+	}
+
+	/**
+	 * Ritorna il numero di distanze tra righe e centroidi non calcolate nell'ultima
+	 * esecuzione di {@link #kmeans(Data)} grazie all'assegnazione accelerata.
+	 * 
+	 * @return {@link #skippedDistances}
+	 */
+	public long getSkippedDistances()
+	{
+		return skippedDistances;
 	}
 
 	/**
@@ -89,14 +270,23 @@ public class KMeansMiner implements Serializable
 
 	/**
 	 * Il metodo esegue l'algoritmo k-means eseguendo i seguenti passi:
-	 * 1. Scelta casuale di centroidi per k clusters assegnandoli al ClusterSet.
+	 * 1. Scelta di centroidi per k clusters, secondo {@link #samplingType} e {@link #seed},
+	 * 	  assegnandoli al ClusterSet.
 	 * 2. Assegnazione di ciascuna riga della matrice in data al cluster avente 
 	 * 	  centroide piu' vicino all'esempio (utilizzando il metodo 
-	 * 	  {@link ClusterSet#nearestCluster(Tuple)}).
+	 * 	  {@link ClusterSet#nearestCluster(Tuple)}). Se {@link #parallelism} e' maggiore
+	 * 	  di 1 i cluster piu' vicini sono calcolati in parallelo (si veda {@link AssignmentTask})
+	 * 	  e le assegnazioni sono poi applicate al ClusterSet in un'unica passata.
+	 * 	  Se {@link #boundedAssignment} e' attivo le distanze da centroidi che non possono
+	 * 	  essere i piu' vicini non vengono calcolate (si veda {@link BoundedAssignment}).
 	 * 3. Calcolo dei nuovi centroidi per ciascun cluster (utilizzando il metodo
 	 * 	  {@link ClusterSet#updateCentroids(Data)}
 	 * 4. Ripete i passi 2 e 3 finche' due iterazioni consecuitive non restituiscono 
-	 * 	  centroidi uguali.
+	 * 	  centroidi uguali oppure finche' non interviene una delle regole di arresto
+	 * 	  di {@link #stoppingCriteria}. Al termine di ogni iterazione sono registrati
+	 * 	  righe spostate, SSE dell'assegnazione (ottenuta dalle distanze calcolate al
+	 * 	  passo 2), spostamento massimo dei centroidi e tempo trascorso. L'SSE dei
+	 * 	  centroidi finali e' calcolata una sola volta, al termine.
 	 * Il metodo propaga l'eccezione OutOfRangeSampleSize nel caso in cui il numero
 	 * k di cluster da scoprire risulta essere maggiore delle tuple presenti nella
 	 * tabella {@link data.Data} oppure se tale numero e' 0.
@@ -104,36 +294,393 @@ public class KMeansMiner implements Serializable
 	 * @param data	La tabella {@link data.Data} che costituisce l'insieme di dati
 	 * 				su cui eseguire l'algoritmo.
 	 * 
-	 * @return Numero di iterazioni eseguite
+	 * @return Riepilogo dell'esecuzione (numero di iterazioni, motivo dell'arresto e
+	 * 		   dati di ciascuna iterazione)
 	 * @throws OutOfRangeSampleSize
 	 * 
 	 */
-	public int kmeans(Data data) throws OutOfRangeSampleSize
+	public KMeansReport kmeans(Data data) throws OutOfRangeSampleSize
 	{
-		int numberOfIterations=0;
+		long start = System.currentTimeMillis();
 		//STEP 1
-		C.initializeCentroids(data);
-		boolean changedCluster=false;
-		do{
-			numberOfIterations++;
+		C.initializeCentroids(data, samplingType, seed);
+		return iterate(data, start, 0);
+	}
+	
+	/**
+	 * Il metodo riprende un'esecuzione di {@link #kmeans(Data)} interrotta, dallo stato
+	 * salvato nel file fileName (si veda {@link #setCheckpoint(String, long)}), e la
+	 * prosegue fino all'arresto. La numerazione delle iterazioni e il tempo trascorso,
+	 * considerato dalle regole di arresto, proseguono da quelli salvati; il riepilogo
+	 * contiene le sole iterazioni eseguite dopo la ripresa.
+	 * 
+	 * @param data	La tabella {@link data.Data} su cui era in esecuzione l'algoritmo.
+	 * @param fileName Nome del file con lo stato salvato
+	 * 
+	 * @return Riepilogo dell'esecuzione ripresa
+	 * @throws IOException se il file non e' leggibile o non corrisponde a data o al numero
+	 * 		di cluster di questo oggetto
+	 */
+	public KMeansReport resume(Data data, String fileName) throws IOException
+	{
+		Checkpoint checkpoint = Checkpoint.read(fileName, data);
+		if(checkpoint.getC().C.length != C.C.length)
+			throw new IOException(fileName + " contiene " + checkpoint.getC().C.length + " cluster anziche' " + C.C.length);
+		C = checkpoint.getC();
+		return iterate(data, System.currentTimeMillis() - checkpoint.getElapsedMillis(), checkpoint.getIteration());
+	}
+	
+	/**
+	 * Il metodo esegue l'algoritmo k-means come {@link #kmeans(Data)}, partendo pero'
+	 * dai centroidi specificati anziche' da quelli scelti secondo {@link #samplingType}.
+	 * 
+	 * @param data	La tabella {@link data.Data} su cui eseguire l'algoritmo.
+	 * @param centroids Centroidi iniziali, uno per cluster (sono copiati)
+	 * 
+	 * @return Riepilogo dell'esecuzione
+	 */
+	KMeansReport kmeans(Data data, Tuple centroids[])
+	{
+		long start = System.currentTimeMillis();
+		C.initializeCentroids(data, centroids);
+		return iterate(data, start, 0);
+	}
+	
+	/**
+	 * Esegue i passi 2, 3 e 4 di {@link #kmeans(Data)} a partire dai centroidi gia'
+	 * presenti in {@link #C}.
+	 * 
+	 * @param data	La tabella {@link data.Data} su cui eseguire l'algoritmo.
+	 * @param start Istante di inizio dell'esecuzione, in millisecondi
+	 * @param numberOfIterations Numero di iterazioni gia' eseguite
+	 * 
+	 * @return Riepilogo dell'esecuzione
+	 */
+	private KMeansReport iterate(Data data, long start, int numberOfIterations)
+	{
+		KMeansReport report = new KMeansReport();
+		STOP_REASON stopReason=null;
+		long lastCheckpoint = System.currentTimeMillis();
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		BoundedAssignment bounds = boundedAssignment ? new BoundedAssignment(data.getNumberOfExamples()) : null;
+		int nearest[] = pool != null || bounds != null ? new int[data.getNumberOfExamples()] : null;
+		double distances[] = new double[data.getNumberOfExamples()];
+		try {
+			do{
+				numberOfIterations++;
+				//STEP 2
+				if(bounds != null)
+					bounds.prepare(C);
+				int moved = assignExamples(data, pool, bounds, nearest, distances);
+				double sse = 0;
+				for(int i = 0; i < distances.length; i++)
+					sse += data.getWeight(i) * distances[i] * distances[i];
+				//STEP 3
+				double shift = C.updateCentroids(data);
+				//con l'assegnazione accelerata la somma e' solo un limite superiore all'SSE
+				IterationReport iteration = new IterationReport(numberOfIterations, moved, bounds != null ? Double.NaN : sse, sse, shift, System.currentTimeMillis() - start);
+				report.add(iteration);
+				stopReason = stoppingCriteria.check(iteration, data.getNumberOfExamples());
+				if(stopReason == null && checkpointFile != null && System.currentTimeMillis() - lastCheckpoint >= checkpointMillis) {
+					checkpoint(numberOfIterations, System.currentTimeMillis() - start);
+					lastCheckpoint = System.currentTimeMillis();
+				}
+			}
+			while(stopReason == null);
+		} finally {
+			if(pool != null)
+				pool.shutdown();
+		}
+		if(checkpointFile != null)
+			new File(checkpointFile).delete();
+		skippedDistances = bounds != null ? bounds.getSkippedDistances() : 0;
+		report.setStopReason(stopReason);
+		report.setSse(C.sse(data));
+		return report;
+	}
+	
+	/**
+	 * Salva lo stato dell'esecuzione in {@link #checkpointFile}. Un errore di scrittura non
+	 * interrompe l'esecuzione.
+	 */
+	private void checkpoint(int numberOfIterations, long elapsedMillis)
+	{
+		try {
+			Checkpoint.write(C, numberOfIterations, elapsedMillis, checkpointFile);
+		} catch(IOException e) {
+			System.err.println(checkpointFile + " non salvato: " + e);
+		}
+	}
+	
+	/**
+	 * Il metodo esegue {@link #kmeans(Data)} restarts volte, con centroidi iniziali diversi,
+	 * e mantiene il ClusterSet con la minima somma dei quadrati delle distanze (SSE).
+	 * Le esecuzioni condividono la tabella data, che non viene modificata, e sono distribuite
+	 * su threads thread; ciascuna utilizza {@link #parallelism} thread nel passo di assegnazione
+	 * e le stesse impostazioni di questo oggetto (assegnazione accelerata, strategia di scelta
+	 * dei centroidi, regole di arresto). I semi delle esecuzioni sono derivati da {@link #seed},
+	 * per cui a parita' di seme e di dati il risultato non cambia.
+	 * 
+	 * @param data	La tabella {@link data.Data} su cui eseguire l'algoritmo.
+	 * @param restarts Numero di esecuzioni
+	 * @param threads Numero massimo di esecuzioni contemporanee
+	 * 
+	 * @return Riepilogo delle esecuzioni (SSE e tempi di ciascuna, esecuzione migliore)
+	 * @throws OutOfRangeSampleSize
+	 * @throws InterruptedException
+	 */
+	public MultiRestartReport multiRestartKmeans(final Data data, int restarts, int threads) throws OutOfRangeSampleSize, InterruptedException
+	{
+		if(restarts < 1 || threads < 1)
+			throw new IllegalArgumentException("restarts e threads devono essere positivi");
+		long start = System.currentTimeMillis();
+		Random rand = new Random(seed);
+		long seeds[] = new long[restarts];
+		final KMeansMiner miners[] = new KMeansMiner[restarts];
+		List<Callable<KMeansReport>> tasks = new ArrayList<Callable<KMeansReport>>();
+		for(int r = 0; r < restarts; r++) {
+			seeds[r] = rand.nextLong();
+			final KMeansMiner miner = new KMeansMiner(C.C.length);
+			miner.parallelism = parallelism;
+			miner.boundedAssignment = boundedAssignment;
+			miner.samplingType = samplingType;
+			miner.stoppingCriteria = stoppingCriteria;
+			miner.seed = seeds[r];
+			miners[r] = miner;
+			tasks.add(new Callable<KMeansReport>() {
+				public KMeansReport call() throws OutOfRangeSampleSize {
+					return miner.kmeans(data);
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, restarts));
+		KMeansReport reports[] = new KMeansReport[restarts];
+		try {
+			List<Future<KMeansReport>> results = executor.invokeAll(tasks);
+			for(int r = 0; r < restarts; r++)
+				reports[r] = results.get(r).get();
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof OutOfRangeSampleSize)
+				throw (OutOfRangeSampleSize)e.getCause();
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+		int best = 0;
+		for(int r = 1; r < restarts; r++) {
+			if(reports[r].getSse() < reports[best].getSse())
+				best = r;
+		}
+		C = miners[best].C;
+		skippedDistances = miners[best].skippedDistances;
+		return new MultiRestartReport(reports, seeds, best, System.currentTimeMillis() - start);
+	}
+	
+	/**
+	 * Il metodo esegue la variante mini-batch dell'algoritmo k-means, adatta a tabelle
+	 * molto grandi:
+	 * 1. Scelta dei centroidi iniziali come in {@link #kmeans(Data)}.
+	 * 2. Estrazione casuale (con {@link #seed}) di batchSize righe e calcolo, per ciascuna,
+	 * 	  del cluster con centroide piu' vicino.
+	 * 3. Aggiornamento dei soli centroidi dei cluster coinvolti: ogni centroide e' la media
+	 * 	  (per gli attributi continui) o il valore piu' frequente (per quelli discreti) delle
+	 * 	  righe dei batch che gli sono state assegnate finora, il che equivale ad un tasso di
+	 * 	  apprendimento pari all'inverso del numero di righe assegnate al cluster.
+	 * 4. Ripete i passi 2 e 3 per il numero di iterazioni specificato.
+	 * 5. Assegna tutte le righe della tabella al cluster piu' vicino in un'unica passata, senza
+	 * 	  modificare i centroidi.
+	 * Il ClusterSet risultante ha la stessa struttura di quello prodotto da {@link #kmeans(Data)}
+	 * e puo' essere salvato con {@link #salva(String)}.
+	 * 
+	 * @param data	La tabella {@link data.Data} su cui eseguire l'algoritmo.
+	 * @param batchSize Numero di righe estratte ad ogni iterazione
+	 * @param iterations Numero di iterazioni da eseguire
+	 * 
+	 * @return Riepilogo dell'esecuzione, con l'SSE dell'assegnazione finale
+	 * @throws OutOfRangeSampleSize
+	 */
+	public MiniBatchReport miniBatchKmeans(Data data, int batchSize, int iterations) throws OutOfRangeSampleSize
+	{
+		if(batchSize < 1 || iterations < 1)
+			throw new IllegalArgumentException("batchSize e iterations devono essere positivi");
+		long start = System.currentTimeMillis();
+		//STEP 1
+		C.initializeCentroids(data, samplingType, seed);
+		int k = C.i;
+		ClusterStatistics learned[] = new ClusterStatistics[k];
+		for(int j = 0; j < k; j++)
+			learned[j] = new ClusterStatistics(data);
+		Random rand = new Random(seed);
+		int batch[] = new int[batchSize];
+		int batchNearest[] = new int[batchSize];
+		boolean updated[] = new boolean[k];
+		for(int t = 0; t < iterations; t++) {
 			//STEP 2
-			changedCluster=false;
-			for(int i=0;i<data.getNumberOfExamples();i++){
-				Cluster nearestCluster = C.nearestCluster(data.getItemSet(i));
-				Cluster oldCluster=C.currentCluster(i);
-				boolean currentChange=nearestCluster.addData(i);
-				if(currentChange)
-					changedCluster=true;
-				//rimuovo la tupla dal vecchio cluster
-				if(currentChange && oldCluster!=null)
-					//il nodo va rimosso dal suo vecchio cluster
-					oldCluster.removeTuple(i);
-
-			}			
+			for(int b = 0; b < batchSize; b++) {
+				batch[b] = rand.nextInt(data.getNumberOfExamples());
+				batchNearest[b] = C.nearestClusterIndex(data, batch[b]);
+			}
 			//STEP 3
-			C.updateCentroids(data);
+			Arrays.fill(updated, false);
+			for(int b = 0; b < batchSize; b++) {
+				learned[batchNearest[b]].add(data, batch[b]);
+				updated[batchNearest[b]] = true;
+			}
+			for(int j = 0; j < k; j++) {
+				if(updated[j])
+					C.get(j).getCentroid().update(learned[j]);
+			}
+		}
+		//STEP 5
+		double distances[] = new double[data.getNumberOfExamples()];
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			assignExamples(data, pool, null, pool != null ? new int[data.getNumberOfExamples()] : null, distances);
+		} finally {
+			if(pool != null)
+				pool.shutdown();
+		}
+		double sse = 0;
+		for(int id = 0; id < distances.length; id++)
+			sse += data.getWeight(id) * distances[id] * distances[id];
+		return new MiniBatchReport(iterations, batchSize, sse, System.currentTimeMillis() - start);
+	}
+	
+	/**
+	 * Il metodo esegue la scoperta dei cluster in un'unica passata sulla tabella tableName
+	 * della base di dati, senza costruire un oggetto {@link data.Data}: le righe sono lette
+	 * una alla volta (si veda {@link TableData#scanTransazioni(String, database.ExampleHandler)})
+	 * ed elaborate a gruppi di bufferSize con k-means sequenziale (si veda
+	 * {@link StreamingClusterer}). La memoria occupata dipende da k, dallo schema della tabella
+	 * e da bufferSize, non dal numero di righe.
+	 * Il ClusterSet risultante contiene i centroidi ma non l'appartenenza delle singole righe
+	 * ai cluster.
+	 * 
+	 * @param tableName Nome della tabella nella base di dati
+	 * @param bufferSize Numero di righe elaborate insieme
+	 * 
+	 * @return Riepilogo dell'esecuzione (righe lette, righe al secondo, heap massimo)
+	 * @throws OutOfRangeSampleSize se la tabella contiene meno di k righe distinte
+	 */
+	public StreamingReport streamingKmeans(String tableName, int bufferSize) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException, OutOfRangeSampleSize
+	{
+		long start = System.currentTimeMillis();
+		DbAccess db = new DbAccess();
+		db.initConnection();
+		try {
+			TableData table = new TableData(db);
+			StreamingClusterer clusterer = new StreamingClusterer(C, Data.loadAttributeSchema(table, new TableSchema(db, tableName), tableName), bufferSize, seed);
+			long rows = table.scanTransazioni(tableName, clusterer);
+			clusterer.flush();
+			if(!clusterer.isInitialized())
+				throw new OutOfRangeSampleSize();
+			return new StreamingReport(rows, System.currentTimeMillis() - start, clusterer.getPeakHeapBytes());
+		} finally {
+			db.closeConnection();
+		}
+	}
+	
+	/**
+	 * Il metodo esegue la scoperta dei cluster su un coreset della tabella tableName (si veda
+	 * {@link CoresetBuilder}), costruito in un'unica passata sulle righe della base di dati
+	 * (si veda {@link TableData#scanAllTransazioni(String, TableSchema, database.RowHandler)}):
+	 * l'algoritmo {@link #kmeans(Data)} e' eseguito sul coreset, di al piu' coresetSize righe
+	 * pesate, anziche' sull'intera tabella. La memoria occupata dipende da coresetSize e dal
+	 * logaritmo del numero di righe.
+	 * Se assignAll e' vero una seconda passata assegna ogni riga della tabella al cluster con
+	 * centroide piu' vicino, calcolando SSE e dimensione dei cluster sulla tabella completa;
+	 * il ClusterSet risultante contiene comunque l'appartenenza delle sole righe del coreset.
+	 * La connessione alla base di dati e' occupata solo durante le passate sulle righe.
+	 * 
+	 * @param tableName Nome della tabella nella base di dati
+	 * @param coresetSize Dimensione massima del coreset (almeno pari al numero di cluster)
+	 * @param assignAll Vero per assegnare ai cluster tutte le righe della tabella
+	 * 
+	 * @return Riepilogo dell'esecuzione
+	 * @throws OutOfRangeSampleSize se il coreset contiene meno di k righe distinte
+	 */
+	public CoresetReport coresetKmeans(final String tableName, int coresetSize, boolean assignAll) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException, OutOfRangeSampleSize
+	{
+		long start = System.currentTimeMillis();
+		DbAccess db = new DbAccess();
+		TableData table = new TableData(db);
+		TableSchema schema;
+		List<Attribute> attributes;
+		long rows;
+		Data coreset;
+		db.initConnection();
+		try {
+			schema = new TableSchema(db, tableName);
+			attributes = Data.loadAttributeSchema(table, schema, tableName);
+			CoresetBuilder builder = new CoresetBuilder(attributes, C.C.length, coresetSize, seed);
+			rows = table.scanAllTransazioni(tableName, schema, builder);
+			coreset = builder.build();
+		} finally {
+			db.closeConnection();
+		}
+		long buildMillis = System.currentTimeMillis() - start;
+		CoresetReport report = new CoresetReport(rows, coreset.getNumberOfExamples(), buildMillis, kmeans(coreset));
+		if(assignAll) {
+			final long clusterSizes[] = new long[C.C.length];
+			final double sse[] = new double[1];
+			BlockHandler assignment = new BlockHandler(attributes, coresetSize) {
+				protected void process(Data block) {
+					for(int id = 0; id < block.getNumberOfExamples(); id++) {
+						int nearest = C.nearestClusterIndex(block, id);
+						double distance = C.get(nearest).getCentroid().getDistance(block, id);
+						clusterSizes[nearest] += block.getWeight(id);
+						sse[0] += block.getWeight(id) * distance * distance;
+					}
+				}
+			};
+			db.initConnection();
+			try {
+				table.scanAllTransazioni(tableName, schema, assignment);
+			} finally {
+				db.closeConnection();
+			}
+			assignment.flush();
+			report.setAssignment(sse[0], clusterSizes);
+		}
+		report.complete(System.currentTimeMillis() - start);
+		return report;
+	}
+	
+	/**
+	 * Assegna ciascuna riga di data al cluster con centroide piu' vicino.
+	 * 
+	 * @param data La tabella {@link data.Data} le cui righe sono da assegnare
+	 * @param pool Pool su cui calcolare in parallelo i cluster piu' vicini, null per il
+	 * 			   calcolo sequenziale
+	 * @param bounds Limiti per l'assegnazione accelerata (gia' preparati), null per
+	 * 				 l'assegnazione esatta
+	 * @param nearest Vettore di appoggio di dimensione pari al numero di righe, necessario
+	 * 				  se pool o bounds non sono null
+	 * @param distances Vettore in cui memorizzare la distanza di ciascuna riga dal centroide
+	 * 				  piu' vicino (un suo limite superiore se bounds non e' null), null se
+	 * 				  le distanze non sono richieste
+	 * @return Numero di righe che hanno cambiato cluster
+	 */
+	private int assignExamples(Data data, ForkJoinPool pool, BoundedAssignment bounds, int nearest[], double distances[])
+	{
+		int moved = 0;
+		if(nearest != null) {
+			if(pool != null)
+				pool.invoke(new AssignmentTask(data, C, bounds, nearest, distances, 0, data.getNumberOfExamples()));
+			else
+				bounds.assign(data, C, nearest, distances, 0, data.getNumberOfExamples());
+			for(int i=0;i<nearest.length;i++){
+				if(C.assign(i, nearest[i]))
+					moved++;
+			}
+		} else {
+			for(int i=0;i<data.getNumberOfExamples();i++){
+				int nearestCluster = C.nearestClusterIndex(data, i, distances);
+				//la tupla viene spostata dal vecchio cluster solo se e' cambiato
+				if(C.assign(i, nearestCluster))
+					moved++;
+			}
 		}
-		while(changedCluster);
-		return numberOfIterations;
+		return moved;
 	}
 }
@@ -0,0 +1,119 @@
+package mining;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe riporta l'esito di un'esecuzione di {@link KMeansMiner#kmeans(data.Data)}:
+ * numero di iterazioni, motivo dell'arresto e dati di ciascuna iterazione.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class KMeansReport implements Serializable {
+
+	/**
+	 * Dati delle iterazioni eseguite, in ordine.
+	 */
+	private List<IterationReport> iterations = new ArrayList<IterationReport>();
+
+	/**
+	 * Motivo dell'arresto.
+	 */
+	private STOP_REASON stopReason;
+
+	/**
+	 * Somma dei quadrati delle distanze dai centroidi finali.
+	 */
+	private double sse = Double.NaN;
+
+	/**
+	 * Aggiunge i dati di un'iterazione.
+	 * 
+	 * @param iteration Dati dell'iterazione
+	 */
+	void add(IterationReport iteration)
+	{
+		iterations.add(iteration);
+	}
+
+	/**
+	 * Imposta il motivo dell'arresto.
+	 * 
+	 * @param stopReason Motivo dell'arresto
+	 */
+	void setStopReason(STOP_REASON stopReason)
+	{
+		this.stopReason = stopReason;
+	}
+
+	/**
+	 * Imposta la somma dei quadrati delle distanze dai centroidi finali.
+	 * 
+	 * @param sse SSE finale
+	 */
+	void setSse(double sse)
+	{
+		this.sse = sse;
+	}
+
+	/**
+	 * Ritorna il numero di iterazioni eseguite.
+	 * 
+	 * @return numero di iterazioni
+	 */
+	public int getNumberOfIterations()
+	{
+		return iterations.size();
+	}
+
+	/**
+	 * Ritorna i dati delle iterazioni eseguite.
+	 * 
+	 * @return {@link #iterations}
+	 */
+	public List<IterationReport> getIterations()
+	{
+		return iterations;
+	}
+
+	/**
+	 * Ritorna il motivo dell'arresto.
+	 * 
+	 * @return {@link #stopReason}
+	 */
+	public STOP_REASON getStopReason()
+	{
+		return stopReason;
+	}
+
+	/**
+	 * Ritorna la somma dei quadrati delle distanze di ogni riga dal centroide del proprio
+	 * cluster, calcolata con i centroidi aggiornati al termine dell'ultima iterazione.
+	 * 
+	 * @return SSE finale, NaN se non e' stata eseguita alcuna iterazione
+	 */
+	public double getSse()
+	{
+		return sse;
+	}
+
+	/**
+	 * Ritorna il tempo totale di esecuzione.
+	 * 
+	 * @return millisecondi trascorsi al termine dell'ultima iterazione
+	 */
+	public long getElapsedMillis()
+	{
+		return iterations.isEmpty() ? 0 : iterations.get(iterations.size() - 1).getElapsedMillis();
+	}
+
+	public String toString()
+	{
+		String str = "Iterazioni=" + getNumberOfIterations() + " arresto=" + stopReason + "\n";
+		for(IterationReport iteration : iterations)
+			str += iteration + "\n";
+		return str;
+	}
+}
@@ -0,0 +1,291 @@
+package mining;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import data.Data;
+import data.OutOfRangeSampleSize;
+import data.SAMPLING_TYPE;
+import data.Tuple;
+
+/**
+ * La classe esegue l'algoritmo k-means per ciascun valore di k in un intervallo
+ * [minK, maxK] sulla stessa tabella {@link data.Data} e suggerisce il numero di cluster
+ * da scoprire. Per ciascun k sono calcolati la somma dei quadrati delle distanze (SSE,
+ * da cui il "gomito" della curva) e il coefficiente di silhouette medio su un campione
+ * di righe; il k suggerito e' quello con silhouette massima.
+ * L'intervallo e' diviso in sottointervalli contigui eseguiti in parallelo: all'interno
+ * di ciascuno l'esecuzione per k+1 parte dai centroidi trovati per k, a cui si aggiunge
+ * una riga scelta con probabilita' proporzionale al quadrato della distanza dal proprio
+ * centroide (come in k-means++), riducendo il numero di iterazioni necessarie.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class KSweep {
+
+	/**
+	 * Estremi dell'intervallo dei valori di k.
+	 */
+	private int minK, maxK;
+
+	/**
+	 * Numero di sottointervalli eseguiti contemporaneamente.
+	 */
+	private int threads = 1;
+
+	/**
+	 * Numero di righe su cui e' calcolato il coefficiente di silhouette.
+	 */
+	private int silhouetteSampleSize = 1000;
+
+	/**
+	 * Seme per la scelta dei centroidi iniziali e del campione.
+	 */
+	private long seed = System.currentTimeMillis();
+
+	/**
+	 * Regole di arresto di ciascuna esecuzione di k-means.
+	 */
+	private StoppingCriteria stoppingCriteria = new StoppingCriteria();
+
+	/**
+	 * Inizializza l'intervallo dei valori di k.
+	 * 
+	 * @param minK Minimo valore di k (almeno 1)
+	 * @param maxK Massimo valore di k (almeno minK)
+	 */
+	public KSweep(int minK, int maxK)
+	{
+		if(minK < 1 || maxK < minK)
+			throw new IllegalArgumentException("intervallo di k non valido");
+		this.minK = minK;
+		this.maxK = maxK;
+	}
+
+	/**
+	 * @param threads Numero di sottointervalli eseguiti contemporaneamente (almeno 1)
+	 */
+	public void setThreads(int threads)
+	{
+		if(threads < 1)
+			throw new IllegalArgumentException("threads < 1");
+		this.threads = threads;
+	}
+
+	/**
+	 * @param silhouetteSampleSize Numero di righe su cui calcolare il coefficiente di silhouette
+	 */
+	public void setSilhouetteSampleSize(int silhouetteSampleSize)
+	{
+		this.silhouetteSampleSize = silhouetteSampleSize;
+	}
+
+	/**
+	 * @param seed Seme per la scelta dei centroidi iniziali e del campione
+	 */
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * @param stoppingCriteria Regole di arresto di ciascuna esecuzione di k-means
+	 */
+	public void setStoppingCriteria(StoppingCriteria stoppingCriteria)
+	{
+		this.stoppingCriteria = stoppingCriteria;
+	}
+
+	/**
+	 * Esegue l'algoritmo k-means per ciascun valore di k dell'intervallo.
+	 * 
+	 * @param data La tabella {@link data.Data}, condivisa e non modificata
+	 * 
+	 * @return Curva di SSE e silhouette, k suggerito e relativo {@link KMeansMiner}
+	 * @throws OutOfRangeSampleSize se maxK supera il numero di righe
+	 * @throws InterruptedException
+	 */
+	public KSweepReport run(final Data data) throws OutOfRangeSampleSize, InterruptedException
+	{
+		if(maxK > data.getNumberOfExamples())
+			throw new OutOfRangeSampleSize();
+		long start = System.currentTimeMillis();
+		final KSweepReport report = new KSweepReport(minK, maxK);
+		final int sample[] = sample(data.getNumberOfExamples(), Math.min(silhouetteSampleSize, data.getNumberOfExamples()), new Random(seed));
+		int chains = Math.min(threads, maxK - minK + 1);
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for(int c = 0; c < chains; c++) {
+			final int from = minK + (maxK - minK + 1) * c / chains;
+			final int to = minK + (maxK - minK + 1) * (c + 1) / chains - 1;
+			tasks.add(new Callable<Void>() {
+				public Void call() throws OutOfRangeSampleSize {
+					chain(data, from, to, sample, report);
+					return null;
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(chains);
+		try {
+			for(Future<Void> result : executor.invokeAll(tasks))
+				result.get();
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof OutOfRangeSampleSize)
+				throw (OutOfRangeSampleSize)e.getCause();
+			throw new RuntimeException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+		report.complete(System.currentTimeMillis() - start);
+		return report;
+	}
+
+	/**
+	 * Esegue l'algoritmo k-means per i valori di k in [from, to], ciascuno a partire
+	 * dai centroidi del precedente, e registra i risultati in report.
+	 * 
+	 * @param data La tabella {@link data.Data}
+	 * @param from Primo valore di k
+	 * @param to Ultimo valore di k
+	 * @param sample Indici delle righe su cui calcolare il coefficiente di silhouette
+	 * @param report Riepilogo in cui registrare i risultati
+	 * @throws OutOfRangeSampleSize
+	 */
+	private void chain(Data data, int from, int to, int sample[], KSweepReport report) throws OutOfRangeSampleSize
+	{
+		Random rand = new Random(seed + from);
+		Tuple sampleTuples[] = new Tuple[sample.length];
+		for(int s = 0; s < sample.length; s++)
+			sampleTuples[s] = data.getItemSet(sample[s]);
+		KMeansMiner previous = null;
+		for(int k = from; k <= to; k++) {
+			KMeansMiner miner = new KMeansMiner(k);
+			miner.setBoundedAssignment(true);
+			miner.setStoppingCriteria(stoppingCriteria);
+			KMeansReport result;
+			if(previous == null) {
+				miner.setSamplingType(SAMPLING_TYPE.KMEANS_PLUS_PLUS);
+				miner.setSeed(rand.nextLong());
+				result = miner.kmeans(data);
+			} else {
+				result = miner.kmeans(data, warmStart(data, previous.getC(), rand));
+			}
+			report.set(k, result, silhouette(data, miner.getC(), sample, sampleTuples), miner);
+			previous = miner;
+		}
+	}
+
+	/**
+	 * Ritorna i centroidi di C seguiti da una riga scelta con probabilita' proporzionale
+	 * al quadrato della distanza dal centroide del proprio cluster per il peso della riga.
+	 * 
+	 * @param data La tabella {@link data.Data}
+	 * @param C Insieme di cluster gia' calcolato su data
+	 * @param rand Generatore di numeri casuali
+	 * 
+	 * @return Centroidi iniziali per k+1 cluster
+	 */
+	private static Tuple[] warmStart(Data data, ClusterSet C, Random rand)
+	{
+		Tuple centroids[] = new Tuple[C.C.length + 1];
+		for(int j = 0; j < C.C.length; j++)
+			centroids[j] = C.get(j).getCentroid();
+		double squaredDistances[] = new double[data.getNumberOfExamples()];
+		double total = 0;
+		for(int id = 0; id < squaredDistances.length; id++) {
+			double distance = C.currentCluster(id).getCentroid().getDistance(data, id);
+			squaredDistances[id] = data.getWeight(id) * distance * distance;
+			total += squaredDistances[id];
+		}
+		int chosen = rand.nextInt(squaredDistances.length);
+		double target = rand.nextDouble() * total;
+		for(int id = 0; id < squaredDistances.length && total > 0; id++) {
+			target -= squaredDistances[id];
+			if(target < 0) {
+				chosen = id;
+				break;
+			}
+		}
+		centroids[C.C.length] = data.getItemSet(chosen);
+		return centroids;
+	}
+
+	/**
+	 * Calcola il coefficiente di silhouette medio delle righe del campione, considerando
+	 * solo le distanze tra righe del campione. Ogni riga conta con il proprio peso (si veda
+	 * {@link Data#getWeight(int)}), come se le sue occorrenze fossero tutte nel campione.
+	 * 
+	 * @param data La tabella {@link data.Data}
+	 * @param C Insieme di cluster calcolato su data
+	 * @param sample Indici delle righe del campione
+	 * @param sampleTuples Righe del campione
+	 * 
+	 * @return silhouette media (tra -1 e 1), NaN se C contiene un solo cluster
+	 */
+	static double silhouette(Data data, ClusterSet C, int sample[], Tuple sampleTuples[])
+	{
+		int k = C.C.length;
+		if(k < 2 || sample.length < 2)
+			return Double.NaN;
+		double sums[] = new double[k];
+		long counts[] = new long[k];
+		double total = 0;
+		long totalWeight = 0;
+		for(int a = 0; a < sample.length; a++) {
+			Arrays.fill(sums, 0);
+			Arrays.fill(counts, 0);
+			for(int b = 0; b < sample.length; b++) {
+				int cluster = C.assignment[sample[b]];
+				if(a != b) {
+					sums[cluster] += data.getWeight(sample[b]) * sampleTuples[a].getDistance(data, sample[b]);
+					counts[cluster] += data.getWeight(sample[b]);
+				} else {
+					//le altre occorrenze della riga a, a distanza nulla
+					counts[cluster] += data.getWeight(sample[a]) - 1;
+				}
+			}
+			int own = C.assignment[sample[a]];
+			totalWeight += data.getWeight(sample[a]);
+			if(counts[own] == 0)
+				continue;
+			double inner = sums[own] / counts[own];
+			double outer = Double.POSITIVE_INFINITY;
+			for(int j = 0; j < k; j++) {
+				if(j != own && counts[j] > 0)
+					outer = Math.min(outer, sums[j] / counts[j]);
+			}
+			if(outer != Double.POSITIVE_INFINITY && Math.max(inner, outer) > 0)
+				total += data.getWeight(sample[a]) * (outer - inner) / Math.max(inner, outer);
+		}
+		return total / totalWeight;
+	}
+
+	/**
+	 * Estrae size indici distinti tra 0 e n-1.
+	 * 
+	 * @param n Numero di righe
+	 * @param size Numero di indici da estrarre (al piu' n)
+	 * @param rand Generatore di numeri casuali
+	 * 
+	 * @return indici estratti
+	 */
+	private static int[] sample(int n, int size, Random rand)
+	{
+		int indexes[] = new int[n];
+		for(int i = 0; i < n; i++)
+			indexes[i] = i;
+		for(int i = 0; i < size; i++) {
+			int j = i + rand.nextInt(n - i);
+			int tmp = indexes[i];
+			indexes[i] = indexes[j];
+			indexes[j] = tmp;
+		}
+		return Arrays.copyOf(indexes, size);
+	}
+}
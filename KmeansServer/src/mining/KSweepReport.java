@@ -0,0 +1,170 @@
+package mining;
+
+/**
+ * La classe riporta l'esito di {@link KSweep#run(data.Data)}: per ciascun valore di k
+ * la somma dei quadrati delle distanze (SSE), il coefficiente di silhouette, il numero
+ * di iterazioni e il tempo impiegato, oltre al k suggerito e al k del "gomito" della
+ * curva di SSE.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class KSweepReport {
+
+	/**
+	 * Minimo valore di k: i vettori seguenti sono indicizzati da k - minK.
+	 */
+	private int minK;
+
+	private double sse[];
+
+	private double silhouette[];
+
+	private int iterations[];
+
+	private long elapsedMillis[];
+
+	/**
+	 * Risultato dell'esecuzione per ciascun k, mantenuto fino al termine per scegliere
+	 * quello suggerito.
+	 */
+	private KMeansMiner miners[];
+
+	/**
+	 * k suggerito (silhouette massima, oppure gomito se la silhouette non e' definita).
+	 */
+	private int recommendedK;
+
+	/**
+	 * k in corrispondenza del gomito della curva di SSE.
+	 */
+	private int elbowK;
+
+	/**
+	 * Millisecondi impiegati dall'intera ricerca.
+	 */
+	private long totalMillis;
+
+	/**
+	 * Inizializza il riepilogo per i valori di k in [minK, maxK].
+	 * 
+	 * @param minK Minimo valore di k
+	 * @param maxK Massimo valore di k
+	 */
+	KSweepReport(int minK, int maxK)
+	{
+		this.minK = minK;
+		int size = maxK - minK + 1;
+		sse = new double[size];
+		silhouette = new double[size];
+		iterations = new int[size];
+		elapsedMillis = new long[size];
+		miners = new KMeansMiner[size];
+	}
+
+	/**
+	 * Registra il risultato dell'esecuzione per k.
+	 * 
+	 * @param k Numero di cluster
+	 * @param result Riepilogo dell'esecuzione
+	 * @param silhouette Coefficiente di silhouette
+	 * @param miner Oggetto che contiene i cluster scoperti
+	 */
+	synchronized void set(int k, KMeansReport result, double silhouette, KMeansMiner miner)
+	{
+		this.sse[k - minK] = result.getSse();
+		this.silhouette[k - minK] = silhouette;
+		this.iterations[k - minK] = result.getNumberOfIterations();
+		this.elapsedMillis[k - minK] = result.getElapsedMillis();
+		this.miners[k - minK] = miner;
+	}
+
+	/**
+	 * Calcola il gomito e il k suggerito e rilascia i risultati degli altri valori di k.
+	 * Il gomito e' il punto della curva di SSE (normalizzata) piu' distante dal segmento
+	 * che ne congiunge gli estremi.
+	 * 
+	 * @param totalMillis Millisecondi impiegati dall'intera ricerca
+	 */
+	synchronized void complete(long totalMillis)
+	{
+		this.totalMillis = totalMillis;
+		int last = sse.length - 1;
+		elbowK = minK;
+		double range = sse[0] - sse[last];
+		if(last >= 2 && range > 0) {
+			double maxGap = 0;
+			for(int j = 1; j < last; j++) {
+				double line = 1 - (double)j / last;
+				double gap = line - (sse[j] - sse[last]) / range;
+				if(gap > maxGap) {
+					maxGap = gap;
+					elbowK = minK + j;
+				}
+			}
+		}
+		recommendedK = elbowK;
+		double best = Double.NEGATIVE_INFINITY;
+		for(int j = 0; j <= last; j++) {
+			if(!Double.isNaN(silhouette[j]) && silhouette[j] > best) {
+				best = silhouette[j];
+				recommendedK = minK + j;
+			}
+		}
+		for(int j = 0; j <= last; j++) {
+			if(minK + j != recommendedK)
+				miners[j] = null;
+		}
+	}
+
+	public int getRecommendedK()
+	{
+		return recommendedK;
+	}
+
+	public int getElbowK()
+	{
+		return elbowK;
+	}
+
+	/**
+	 * @return cluster scoperti per il k suggerito
+	 */
+	public KMeansMiner getRecommendedMiner()
+	{
+		return miners[recommendedK - minK];
+	}
+
+	public double getSse(int k)
+	{
+		return sse[k - minK];
+	}
+
+	public double getSilhouette(int k)
+	{
+		return silhouette[k - minK];
+	}
+
+	public int getNumberOfIterations(int k)
+	{
+		return iterations[k - minK];
+	}
+
+	public long getElapsedMillis(int k)
+	{
+		return elapsedMillis[k - minK];
+	}
+
+	public long getTotalMillis()
+	{
+		return totalMillis;
+	}
+
+	public String toString()
+	{
+		String str = "k suggerito=" + recommendedK + " gomito=" + elbowK + " ms=" + totalMillis + "\n";
+		for(int j = 0; j < sse.length; j++)
+			str += "k=" + (minK + j) + " sse=" + sse[j] + " silhouette=" + silhouette[j] 
+				+ " iterazioni=" + iterations[j] + " ms=" + elapsedMillis[j] + "\n";
+		return str;
+	}
+}
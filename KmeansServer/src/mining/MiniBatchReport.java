@@ -0,0 +1,97 @@
+package mining;
+
+import java.io.Serializable;
+
+/**
+ * La classe riassume l'esecuzione di {@link KMeansMiner#miniBatchKmeans(data.Data, int, int)}:
+ * iterazioni e dimensione del batch, SSE dell'assegnazione finale di tutte le righe e
+ * tempo impiegato.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class MiniBatchReport implements Serializable {
+
+	/**
+	 * Numero di iterazioni eseguite.
+	 */
+	private int iterations;
+
+	/**
+	 * Numero di righe estratte ad ogni iterazione.
+	 */
+	private int batchSize;
+
+	/**
+	 * Somma dei quadrati delle distanze di ogni riga dal centroide del proprio cluster,
+	 * dopo l'assegnazione finale.
+	 */
+	private double sse;
+
+	/**
+	 * Tempo impiegato in millisecondi.
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * Inizializza il riepilogo.
+	 *
+	 * @param iterations Numero di iterazioni eseguite
+	 * @param batchSize Numero di righe estratte ad ogni iterazione
+	 * @param sse SSE dell'assegnazione finale
+	 * @param elapsedMillis Tempo impiegato in millisecondi
+	 */
+	MiniBatchReport(int iterations, int batchSize, double sse, long elapsedMillis)
+	{
+		this.iterations = iterations;
+		this.batchSize = batchSize;
+		this.sse = sse;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Ritorna il numero di iterazioni eseguite.
+	 *
+	 * @return {@link #iterations}
+	 */
+	public int getNumberOfIterations()
+	{
+		return iterations;
+	}
+
+	/**
+	 * Ritorna il numero di righe estratte ad ogni iterazione.
+	 *
+	 * @return {@link #batchSize}
+	 */
+	public int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	/**
+	 * Ritorna la somma dei quadrati delle distanze di ogni riga dal centroide del proprio
+	 * cluster, calcolata sull'intera tabella dopo l'assegnazione finale.
+	 *
+	 * @return {@link #sse}
+	 */
+	public double getSse()
+	{
+		return sse;
+	}
+
+	/**
+	 * Ritorna il tempo impiegato.
+	 *
+	 * @return {@link #elapsedMillis}
+	 */
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	public String toString()
+	{
+		return "Iterazioni=" + iterations + " batch=" + batchSize + " SSE=" + sse + " ms=" + elapsedMillis;
+	}
+}
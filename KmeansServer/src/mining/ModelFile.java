@@ -0,0 +1,296 @@
+package mining;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import data.Attribute;
+import data.ClusterStatistics;
+import data.Data;
+import data.ModelCodec;
+import data.Tuple;
+
+/**
+ * La classe salva e legge un {@link ClusterSet} in un formato binario esplicito, che non
+ * dipende dalla struttura delle classi (a differenza della serializzazione Java) e
+ * memorizza lo schema degli attributi una sola volta anziche' in ogni item.
+ * Il file contiene, nell'ordine:
+ * intestazione: {@link #MAGIC} e {@link #VERSION} (int), numero di cluster k, numero di
+ * 		cluster presenti e numero di righe assegnate (-1 se l'appartenenza non e' nota,
+ * 		altrimenti ogni riga appartiene a uno dei cluster);
+ * schema e centroidi: si veda {@link ModelCodec};
+ * appartenenza: per ciascun cluster l'insieme delle righe come bitmap compressa (si veda
+ * 		{@link RowBitmap#write(DataOutputStream)}).
+ * Nella versione 1 del formato, ancora leggibile, l'appartenenza di ciascun cluster era
+ * scritta come numero di righe seguito dagli indici di riga crescenti, codificati come
+ * differenza dal precedente in formato a lunghezza variabile (7 bit per byte, il bit piu'
+ * alto indica che seguono altri byte).
+ * La scrittura e' atomica: il contenuto e' scritto in un file temporaneo nella stessa
+ * cartella, forzato su disco e rinominato nel file finale, per cui una lettura
+ * contemporanea o un'interruzione trovano il file precedente o quello nuovo, mai uno
+ * incompleto. La lettura mappa il file in memoria, senza copie intermedie.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+final class ModelFile {
+
+	/**
+	 * Primi quattro byte del file ("KMOD").
+	 */
+	static final int MAGIC = 0x4B4D4F44;
+
+	/**
+	 * Versione del formato.
+	 */
+	static final int VERSION = 2;
+
+	/**
+	 * Contenuto di un file scritto con {@link ModelFile#write(String, Content)}.
+	 */
+	interface Content {
+		void writeTo(DataOutputStream out) throws IOException;
+	}
+
+	private ModelFile()
+	{
+	}
+
+	/**
+	 * Salva C nel file fileName, sostituendolo atomicamente se esiste.
+	 * 
+	 * @param C Insieme di cluster da salvare
+	 * @param fileName Nome del file
+	 * @throws IOException
+	 */
+	static void write(final ClusterSet C, String fileName) throws IOException
+	{
+		write(fileName, new Content() {
+			public void writeTo(DataOutputStream out) throws IOException {
+				write(C, out);
+			}
+		});
+	}
+
+	/**
+	 * Scrive content nel file fileName, sostituendolo atomicamente se esiste.
+	 * 
+	 * @param fileName Nome del file
+	 * @param content Contenuto da scrivere
+	 * @throws IOException
+	 */
+	static void write(String fileName, Content content) throws IOException
+	{
+		File target = new File(fileName).getAbsoluteFile();
+		File temp = File.createTempFile("." + target.getName() + ".", ".tmp", target.getParentFile());
+		boolean written = false;
+		try {
+			FileOutputStream file = new FileOutputStream(temp);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+			try {
+				content.writeTo(out);
+				out.flush();
+				file.getFD().sync();
+			} finally {
+				out.close();
+			}
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			written = true;
+		} finally {
+			if(!written)
+				temp.delete();
+		}
+		syncDirectory(target.getParentFile());
+	}
+
+	/**
+	 * Forza su disco la cartella, in modo che la ridenominazione sopravviva a
+	 * un'interruzione del sistema. Alcuni sistemi non consentono di aprire le cartelle:
+	 * in tal caso l'operazione e' omessa.
+	 */
+	private static void syncDirectory(File directory)
+	{
+		try {
+			FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+			try {
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		} catch(IOException e) {
+			//cartella non apribile in lettura
+		}
+	}
+
+	/**
+	 * Scrive C, nel formato descritto nella documentazione della classe, su out.
+	 * 
+	 * @param C Insieme di cluster da salvare
+	 * @param out Destinazione
+	 * @throws IOException
+	 */
+	static void write(ClusterSet C, DataOutputStream out) throws IOException
+	{
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(C.C.length);
+		out.writeInt(C.i);
+		out.writeInt(C.assignment != null ? C.assignment.length : -1);
+		if(C.i > 0) {
+			ModelCodec.writeSchema(out, C.get(0).getCentroid());
+			for(int j = 0; j < C.i; j++)
+				ModelCodec.writeTuple(out, C.get(j).getCentroid());
+		}
+		if(C.assignment != null) {
+			for(int j = 0; j < C.i; j++)
+				C.get(j).clusteredData.write(out);
+		}
+	}
+
+	/**
+	 * Indica se il contenuto di in inizia con {@link #MAGIC}.
+	 * 
+	 * @param in Contenuto del file
+	 * @return vero se il file e' nel formato di questa classe
+	 */
+	static boolean isModelFile(ByteBuffer in)
+	{
+		return in.limit() >= 4 && in.getInt(0) == MAGIC;
+	}
+
+	/**
+	 * Mappa in memoria il file fileName.
+	 * 
+	 * @param fileName Nome del file
+	 * @return contenuto del file, in sola lettura
+	 * @throws IOException
+	 */
+	static MappedByteBuffer map(String fileName) throws IOException
+	{
+		FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		try {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			//la mappatura resta valida dopo la chiusura del canale
+			channel.close();
+		}
+	}
+
+	/**
+	 * Legge un insieme di cluster salvato con {@link #write(ClusterSet, String)}.
+	 * Come per i file serializzati, le statistiche dei cluster non sono disponibili e la
+	 * tabella a cui si riferisce l'appartenenza non e' associata.
+	 * 
+	 * @param in Contenuto del file (si veda {@link #map(String)})
+	 * @return insieme di cluster letto
+	 * @throws IOException se il file non e' nel formato atteso o e' incompleto
+	 */
+	static ClusterSet read(ByteBuffer in) throws IOException
+	{
+		return read(in, null);
+	}
+
+	/**
+	 * Legge un insieme di cluster salvato con {@link #write(ClusterSet, String)} che deve
+	 * riferirsi alla tabella data: lo schema degli attributi deve coincidere con quello di
+	 * data (si veda {@link ModelCodec#readSchema(ByteBuffer, Data)}) e, se l'appartenenza e'
+	 * presente, il numero di righe con quello di data. I centroidi letti fanno riferimento
+	 * agli attributi di data.
+	 * 
+	 * @param in Contenuto del file, posizionato all'inizio del modello
+	 * @param data Tabella a cui si riferiscono i cluster, null se non nota
+	 * @return insieme di cluster letto
+	 * @throws IOException se il file non e' nel formato atteso, e' incompleto o non
+	 * 		corrisponde a data
+	 */
+	static ClusterSet read(ByteBuffer in, Data data) throws IOException
+	{
+		try {
+			if(in.getInt() != MAGIC)
+				throw new IOException("il file non contiene un modello");
+			int version = in.getInt();
+			if(version != 1 && version != VERSION)
+				throw new IOException("versione del modello non supportata: " + version);
+			//le dimensioni lette sono verificate prima di allocare: un file danneggiato non
+			//deve causare allocazioni che il suo contenuto non giustifica
+			int k = in.getInt();
+			int clusters = in.getInt();
+			int rows = in.getInt();
+			if(clusters < 0 || clusters > k || clusters > in.remaining())
+				throw new IOException("numero di cluster non valido: " + clusters + " su " + k);
+			if(rows < -1)
+				throw new IOException("numero di righe non valido: " + rows);
+			if(data != null && rows >= 0 && rows != data.getNumberOfExamples())
+				throw new IOException("il modello si riferisce a " + rows + " righe anziche' " + data.getNumberOfExamples());
+			Tuple centroids[] = new Tuple[clusters];
+			if(clusters > 0) {
+				List<Attribute> schema = data != null ? ModelCodec.readSchema(in, data) : ModelCodec.readSchema(in);
+				if(schema.isEmpty())
+					throw new IOException("schema vuoto");
+				for(int j = 0; j < clusters; j++)
+					centroids[j] = ModelCodec.readTuple(in, schema);
+			}
+			RowBitmap members[] = new RowBitmap[clusters];
+			if(rows >= 0) {
+				long assigned = 0;
+				for(int j = 0; j < clusters; j++) {
+					if(version == 1) {
+						members[j] = new RowBitmap();
+						int count = RowBitmap.readVarint(in);
+						if(count < 0 || count > in.remaining())
+							throw new IOException("numero di righe del cluster non valido: " + count);
+						int id = 0;
+						for(int m = 0; m < count; m++) {
+							id += RowBitmap.readVarint(in);
+							if(id < 0 || id >= rows)
+								throw new IOException("riga non valida: " + id);
+							members[j].set(id);
+						}
+					} else {
+						members[j] = RowBitmap.read(in);
+					}
+					assigned += members[j].cardinality();
+				}
+				//ogni riga appartiene a un cluster: il numero di righe e' giustificato dalle
+				//appartenenze lette
+				if(assigned != rows)
+					throw new IOException("righe assegnate " + assigned + " anziche' " + rows);
+			}
+			//k non supera il numero di righe (si veda Data#sampling); i cluster non ancora
+			//presenti non occupano spazio, per cui k e' comunque limitato dalla dimensione del file
+			if(k > Math.max(rows, in.limit()))
+				throw new IOException("numero di cluster non valido: " + k);
+			ClusterSet C = new ClusterSet(k);
+			for(int j = 0; j < clusters; j++)
+				C.add(new Cluster(centroids[j], (ClusterStatistics) null));
+			if(rows >= 0) {
+				C.assignment = new int[rows];
+				Arrays.fill(C.assignment, -1);
+				for(int j = 0; j < clusters; j++) {
+					C.get(j).clusteredData = members[j];
+					for(int id : members[j].toArray()) {
+						if(id < 0 || id >= rows || C.assignment[id] != -1)
+							throw new IOException("riga non valida: " + id);
+						C.assignment[id] = j;
+					}
+				}
+			}
+			return C;
+		} catch(BufferUnderflowException e) {
+			throw new IOException("modello incompleto");
+		} catch(IndexOutOfBoundsException e) {
+			throw new IOException("modello non valido");
+		}
+	}
+}
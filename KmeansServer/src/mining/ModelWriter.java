@@ -0,0 +1,235 @@
+package mining;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * La classe salva i cluster su file in un thread separato, in modo che chi li ha
+ * scoperti non attenda la scrittura su disco (si veda
+ * {@link KMeansMiner#salva(String, ModelWriter)}).
+ * I salvataggi sono eseguiti nell'ordine di richiesta con {@link ModelFile#write(ClusterSet, String)},
+ * che scrive un file temporaneo, lo forza su disco e lo rinomina nel file finale.
+ * Al piu' {@link #capacity} file possono essere in attesa di scrittura: oltre tale limite
+ * chi richiede un salvataggio attende che se ne liberi uno. Un salvataggio richiesto per un
+ * file gia' in attesa non occupa un nuovo posto ma sostituisce i cluster da scrivere: il
+ * file e' scritto una sola volta, con i cluster piu' recenti, e tutte le richieste
+ * risultano completate insieme.
+ * L'esito di ciascun salvataggio e' riportato dal {@link Future} restituito e sulla
+ * console del server.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class ModelWriter {
+
+	/**
+	 * Salvataggio in attesa di scrittura.
+	 */
+	private static class Pending {
+		private File file;
+		private ClusterSet C;
+		private FutureTask<File> task;
+	}
+
+	/**
+	 * Salvataggi in attesa, per percorso del file, nell'ordine di richiesta.
+	 */
+	private LinkedHashMap<String, Pending> queue = new LinkedHashMap<String, Pending>();
+
+	/**
+	 * Percorso del file in scrittura, null se nessun file e' in scrittura.
+	 */
+	private String writing;
+
+	/**
+	 * Numero massimo di file in attesa di scrittura.
+	 */
+	private int capacity;
+
+	private boolean closed;
+
+	private long written, coalesced, failed;
+
+	private Thread thread;
+
+	/**
+	 * Avvia il thread di scrittura.
+	 *
+	 * @param capacity Numero massimo di file in attesa di scrittura
+	 */
+	public ModelWriter(int capacity)
+	{
+		if(capacity <= 0)
+			throw new IllegalArgumentException("capacita' non valida: " + capacity);
+		this.capacity = capacity;
+		thread = new Thread("model-writer") {
+			public void run() {
+				try {
+					writeAll();
+				} catch(InterruptedException e) {
+					//chiusura forzata
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Richiede il salvataggio di C nel file fileName. C non deve essere modificato finche'
+	 * il salvataggio non e' completato.
+	 *
+	 * @param C Insieme di cluster da salvare
+	 * @param fileName Nome del file
+	 * @return esito del salvataggio: il file scritto, disponibile quando e' su disco
+	 * @throws IOException se non e' possibile risolvere il percorso del file
+	 * @throws InterruptedException se l'attesa di un posto libero e' interrotta
+	 * @throws IllegalStateException se il thread di scrittura e' stato chiuso
+	 */
+	synchronized Future<File> submit(ClusterSet C, String fileName) throws IOException, InterruptedException
+	{
+		File file = new File(fileName).getCanonicalFile();
+		String key = file.getPath();
+		while(true) {
+			if(closed)
+				throw new IllegalStateException("salvataggio di " + fileName + " dopo la chiusura");
+			Pending pending = queue.get(key);
+			if(pending != null) {
+				pending.C = C;
+				coalesced++;
+				return pending.task;
+			}
+			if(queue.size() < capacity)
+				break;
+			wait();
+		}
+		final Pending pending = new Pending();
+		pending.file = file;
+		pending.C = C;
+		pending.task = new FutureTask<File>(new Callable<File>() {
+			public File call() throws IOException {
+				return write(pending);
+			}
+		});
+		queue.put(key, pending);
+		notifyAll();
+		return pending.task;
+	}
+
+	/**
+	 * Esegue i salvataggi in attesa, nell'ordine di richiesta, fino alla chiusura.
+	 */
+	private void writeAll() throws InterruptedException
+	{
+		while(true) {
+			Pending next;
+			synchronized(this) {
+				while(queue.isEmpty() && !closed)
+					wait();
+				if(queue.isEmpty())
+					return;
+				Iterator<Pending> iterator = queue.values().iterator();
+				next = iterator.next();
+				iterator.remove();
+				writing = next.file.getPath();
+				notifyAll();
+			}
+			next.task.run();
+			synchronized(this) {
+				writing = null;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Scrive un salvataggio gia' rimosso dalla coda, per cui i suoi cluster non possono
+	 * piu' essere sostituiti.
+	 */
+	private File write(Pending pending) throws IOException
+	{
+		ClusterSet C;
+		synchronized(this) {
+			C = pending.C;
+		}
+		long start = System.currentTimeMillis();
+		try {
+			ModelFile.write(C, pending.file.getPath());
+		} catch(IOException e) {
+			synchronized(this) {
+				failed++;
+			}
+			System.err.println(pending.file + " non salvato: " + e);
+			throw e;
+		}
+		synchronized(this) {
+			written++;
+		}
+		System.out.println(pending.file + " salvato in " + (System.currentTimeMillis() - start) + " ms");
+		return pending.file;
+	}
+
+	/**
+	 * Attende che l'eventuale salvataggio del file fileName, in attesa o in corso, sia
+	 * completato, in modo che una lettura successiva trovi i cluster piu' recenti.
+	 *
+	 * @param fileName Nome del file
+	 * @throws IOException se non e' possibile risolvere il percorso del file
+	 * @throws InterruptedException se l'attesa e' interrotta
+	 */
+	public void await(String fileName) throws IOException, InterruptedException
+	{
+		String key = new File(fileName).getCanonicalPath();
+		synchronized(this) {
+			while(queue.containsKey(key) || key.equals(writing))
+				wait();
+		}
+	}
+
+	/**
+	 * Non accetta piu' salvataggi e attende la scrittura di quelli gia' richiesti.
+	 *
+	 * @throws InterruptedException se l'attesa e' interrotta
+	 */
+	public void close() throws InterruptedException
+	{
+		synchronized(this) {
+			closed = true;
+			notifyAll();
+		}
+		thread.join();
+	}
+
+	/**
+	 * @return numero di file scritti
+	 */
+	public synchronized long getWritten()
+	{
+		return written;
+	}
+
+	/**
+	 * @return numero di salvataggi uniti a uno gia' in attesa per lo stesso file
+	 */
+	public synchronized long getCoalesced()
+	{
+		return coalesced;
+	}
+
+	/**
+	 * @return numero di salvataggi non riusciti
+	 */
+	public synchronized long getFailed()
+	{
+		return failed;
+	}
+
+	public synchronized String toString()
+	{
+		return "in attesa=" + queue.size() + " scritti=" + written + " uniti=" + coalesced + " falliti=" + failed;
+	}
+}
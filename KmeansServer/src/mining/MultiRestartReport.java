@@ -0,0 +1,100 @@
+package mining;
+
+import java.io.Serializable;
+
+/**
+ * La classe riporta l'esito di {@link KMeansMiner#multiRestartKmeans(data.Data, int, int)}:
+ * il riepilogo ({@link KMeansReport}) e il seme di ciascuna esecuzione e l'indice
+ * dell'esecuzione con SSE minima, il cui ClusterSet e' stato mantenuto.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class MultiRestartReport implements Serializable {
+
+	/**
+	 * Riepiloghi delle esecuzioni, nell'ordine in cui sono state avviate.
+	 */
+	private KMeansReport restarts[];
+
+	/**
+	 * Semi utilizzati per la scelta dei centroidi iniziali di ciascuna esecuzione.
+	 */
+	private long seeds[];
+
+	/**
+	 * Indice dell'esecuzione con SSE minima.
+	 */
+	private int best;
+
+	/**
+	 * Millisecondi trascorsi dall'avvio della prima esecuzione al termine dell'ultima.
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * Inizializza il riepilogo.
+	 * 
+	 * @param restarts Riepiloghi delle esecuzioni
+	 * @param seeds Semi delle esecuzioni
+	 * @param best Indice dell'esecuzione con SSE minima
+	 * @param elapsedMillis Tempo totale in millisecondi
+	 */
+	MultiRestartReport(KMeansReport restarts[], long seeds[], int best, long elapsedMillis)
+	{
+		this.restarts = restarts;
+		this.seeds = seeds;
+		this.best = best;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public int getNumberOfRestarts()
+	{
+		return restarts.length;
+	}
+
+	/**
+	 * @param restart Indice dell'esecuzione
+	 * @return riepilogo dell'esecuzione (SSE, iterazioni, tempi)
+	 */
+	public KMeansReport getRestart(int restart)
+	{
+		return restarts[restart];
+	}
+
+	/**
+	 * @param restart Indice dell'esecuzione
+	 * @return seme dell'esecuzione
+	 */
+	public long getSeed(int restart)
+	{
+		return seeds[restart];
+	}
+
+	public int getBest()
+	{
+		return best;
+	}
+
+	/**
+	 * @return SSE dell'esecuzione migliore
+	 */
+	public double getSse()
+	{
+		return restarts[best].getSse();
+	}
+
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	public String toString()
+	{
+		String str = "Esecuzioni=" + restarts.length + " migliore=" + (best + 1) + " ms=" + elapsedMillis + "\n";
+		for(int r = 0; r < restarts.length; r++)
+			str += (r + 1) + ": seme=" + seeds[r] + " iterazioni=" + restarts[r].getNumberOfIterations() 
+				+ " sse=" + restarts[r].getSse() + " ms=" + restarts[r].getElapsedMillis() + "\n";
+		return str;
+	}
+}
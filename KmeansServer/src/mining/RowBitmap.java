@@ -0,0 +1,439 @@
+package mining;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * La classe rappresenta in forma compressa un insieme di indici di riga (interi non
+ * negativi), con la stessa organizzazione delle bitmap "roaring": gli indici sono divisi
+ * in blocchi di 65536 secondo i 16 bit piu' alti e ciascun blocco non vuoto e' memorizzato
+ * in un contenitore scelto in base al numero di elementi:
+ * vettore ordinato dei 16 bit piu' bassi (2 byte per elemento) fino a {@link #ARRAY_MAX}
+ * 		elementi;
+ * bitmap di 65536 bit (8 KB) oltre tale soglia.
+ * A differenza di {@link java.util.BitSet}, che occupa un bit per ogni riga fino alla
+ * piu' alta presente, un insieme sparso occupa quindi spazio proporzionale al numero di
+ * elementi.
+ * Su file (si veda {@link #write(DataOutputStream)}) ciascun contenitore e' scritto nella
+ * forma piu' compatta tra differenze tra elementi consecutivi, bitmap e sequenza di
+ * intervalli consecutivi.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+class RowBitmap implements Serializable {
+
+	/**
+	 * Numero massimo di elementi di un contenitore a vettore: oltre tale soglia la bitmap
+	 * (1024 long) occupa meno spazio.
+	 */
+	static final int ARRAY_MAX = 4096;
+
+	/**
+	 * Tipi di contenitore su file.
+	 */
+	private static final byte DELTAS = 0, BITMAP = 1, RUNS = 2;
+
+	/**
+	 * Contenitore degli elementi di un blocco: values se e' un vettore, words se e' una bitmap.
+	 */
+	private static class Container implements Serializable {
+		private char values[];
+		private long words[];
+		private int cardinality;
+	}
+
+	/**
+	 * 16 bit piu' alti di ciascun blocco non vuoto, in ordine crescente.
+	 */
+	private char keys[] = new char[0];
+
+	/**
+	 * Contenitori dei blocchi, nello stesso ordine di {@link #keys}.
+	 */
+	private Container containers[] = new Container[0];
+
+	/**
+	 * Numero di blocchi non vuoti.
+	 */
+	private int size;
+
+	/**
+	 * Numero di elementi dell'insieme.
+	 */
+	private int cardinality;
+
+	/**
+	 * Posizione in {@link #keys} del blocco key, oppure -(posizione di inserimento)-1.
+	 */
+	private int find(char key)
+	{
+		//i blocchi sono pochi (uno ogni 65536 righe): l'ultimo e' il piu' probabile
+		if(size > 0 && keys[size - 1] == key)
+			return size - 1;
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	/**
+	 * Verifica se l'insieme contiene id.
+	 *
+	 * @param id Indice di riga
+	 * @return vero se id appartiene all'insieme
+	 */
+	boolean get(int id)
+	{
+		int index = find((char) (id >>> 16));
+		if(index < 0)
+			return false;
+		Container container = containers[index];
+		char low = (char) id;
+		if(container.words != null)
+			return (container.words[low >>> 6] & (1L << low)) != 0;
+		return Arrays.binarySearch(container.values, 0, container.cardinality, low) >= 0;
+	}
+
+	/**
+	 * Aggiunge id all'insieme.
+	 *
+	 * @param id Indice di riga
+	 * @return vero se id non era presente
+	 */
+	boolean set(int id)
+	{
+		char key = (char) (id >>> 16);
+		int index = find(key);
+		if(index < 0) {
+			index = -index - 1;
+			if(size == keys.length) {
+				keys = Arrays.copyOf(keys, Math.max(4, 2 * size));
+				containers = Arrays.copyOf(containers, keys.length);
+			}
+			System.arraycopy(keys, index, keys, index + 1, size - index);
+			System.arraycopy(containers, index, containers, index + 1, size - index);
+			keys[index] = key;
+			containers[index] = new Container();
+			containers[index].values = new char[4];
+			size++;
+		}
+		Container container = containers[index];
+		char low = (char) id;
+		if(container.words != null) {
+			long bit = 1L << low;
+			if((container.words[low >>> 6] & bit) != 0)
+				return false;
+			container.words[low >>> 6] |= bit;
+		} else {
+			//le righe sono spesso aggiunte in ordine crescente: in tal caso non serve la ricerca
+			int position = container.cardinality;
+			if(position > 0 && container.values[position - 1] >= low) {
+				position = Arrays.binarySearch(container.values, 0, container.cardinality, low);
+				if(position >= 0)
+					return false;
+				position = -position - 1;
+			}
+			if(container.cardinality == ARRAY_MAX) {
+				toBitmap(container);
+				container.words[low >>> 6] |= 1L << low;
+			} else {
+				if(container.cardinality == container.values.length)
+					container.values = Arrays.copyOf(container.values, Math.min(ARRAY_MAX, 2 * container.cardinality));
+				System.arraycopy(container.values, position, container.values, position + 1, container.cardinality - position);
+				container.values[position] = low;
+			}
+		}
+		container.cardinality++;
+		cardinality++;
+		return true;
+	}
+
+	/**
+	 * Rimuove id dall'insieme.
+	 *
+	 * @param id Indice di riga
+	 * @return vero se id era presente
+	 */
+	boolean clear(int id)
+	{
+		int index = find((char) (id >>> 16));
+		if(index < 0)
+			return false;
+		Container container = containers[index];
+		char low = (char) id;
+		if(container.words != null) {
+			long bit = 1L << low;
+			if((container.words[low >>> 6] & bit) == 0)
+				return false;
+			container.words[low >>> 6] &= ~bit;
+			container.cardinality--;
+			//soglia piu' bassa di quella di conversione in bitmap, per non convertire
+			//ripetutamente un blocco che oscilla intorno a ARRAY_MAX elementi
+			if(container.cardinality <= ARRAY_MAX / 2)
+				toArray(container);
+		} else {
+			int position = Arrays.binarySearch(container.values, 0, container.cardinality, low);
+			if(position < 0)
+				return false;
+			System.arraycopy(container.values, position + 1, container.values, position, container.cardinality - position - 1);
+			container.cardinality--;
+		}
+		cardinality--;
+		if(container.cardinality == 0) {
+			System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+			System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+			size--;
+			containers[size] = null;
+		}
+		return true;
+	}
+
+	private static void toBitmap(Container container)
+	{
+		container.words = new long[1024];
+		for(int v = 0; v < container.cardinality; v++)
+			container.words[container.values[v] >>> 6] |= 1L << container.values[v];
+		container.values = null;
+	}
+
+	private static void toArray(Container container)
+	{
+		char values[] = new char[container.cardinality];
+		int v = 0;
+		for(int w = 0; w < container.words.length; w++) {
+			long word = container.words[w];
+			while(word != 0) {
+				values[v++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+		container.values = values;
+		container.words = null;
+	}
+
+	/**
+	 * Ritorna il numero di elementi dell'insieme.
+	 *
+	 * @return {@link #cardinality}
+	 */
+	int cardinality()
+	{
+		return cardinality;
+	}
+
+	/**
+	 * Ritorna gli elementi dell'insieme in ordine crescente.
+	 *
+	 * @return vettore degli elementi
+	 */
+	int[] toArray()
+	{
+		int array[] = new int[cardinality];
+		int k = 0;
+		for(int index = 0; index < size; index++) {
+			Container container = containers[index];
+			int base = keys[index] << 16;
+			if(container.words != null) {
+				for(int w = 0; w < container.words.length; w++) {
+					long word = container.words[w];
+					while(word != 0) {
+						array[k++] = base + w * 64 + Long.numberOfTrailingZeros(word);
+						word &= word - 1;
+					}
+				}
+			} else {
+				for(int v = 0; v < container.cardinality; v++)
+					array[k++] = base + container.values[v];
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * Stima la memoria occupata dai contenitori: 2 byte per ciascun elemento allocato dei
+	 * vettori, 8 KB per ciascuna bitmap e 2 byte per ciascun blocco (le intestazioni degli
+	 * oggetti non sono considerate).
+	 *
+	 * @return numero di byte stimato
+	 */
+	long getSizeInBytes()
+	{
+		long bytes = 2L * keys.length;
+		for(int index = 0; index < size; index++) {
+			Container container = containers[index];
+			bytes += container.words != null ? 8L * container.words.length : 2L * container.values.length;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Scrive l'insieme: numero di blocchi seguito, per ciascun blocco, dai 16 bit piu' alti
+	 * (short), dal tipo di contenitore (byte) e dal contenuto, nella forma piu' compatta tra:
+	 * differenze: numero di elementi (short, meno 1) e 16 bit piu' bassi di ciascun
+	 * 		elemento, codificati come differenza dal precedente in formato a lunghezza
+	 * 		variabile (si veda {@link #writeVarint(DataOutputStream, int)});
+	 * bitmap: 1024 long;
+	 * intervalli: numero di intervalli (short, meno 1) e, per ciascuno, primo elemento e
+	 * 		lunghezza meno 1 (due short).
+	 *
+	 * @param out Destinazione
+	 * @throws IOException
+	 */
+	void write(DataOutputStream out) throws IOException
+	{
+		out.writeInt(size);
+		for(int index = 0; index < size; index++) {
+			Container container = containers[index];
+			char values[] = container.values;
+			if(values == null) {
+				Container copy = new Container();
+				copy.words = container.words;
+				copy.cardinality = container.cardinality;
+				toArray(copy);
+				values = copy.values;
+			}
+			int runs = 1;
+			int deltaBytes = varintSize(values[0]);
+			for(int v = 1; v < container.cardinality; v++) {
+				if(values[v] != values[v - 1] + 1)
+					runs++;
+				deltaBytes += varintSize(values[v] - values[v - 1]);
+			}
+			out.writeShort(keys[index]);
+			if(4 * runs <= Math.min(deltaBytes, 8192)) {
+				out.writeByte(RUNS);
+				out.writeShort(runs - 1);
+				int start = 0;
+				for(int v = 1; v <= container.cardinality; v++) {
+					if(v == container.cardinality || values[v] != values[v - 1] + 1) {
+						out.writeShort(values[start]);
+						out.writeShort(v - 1 - start);
+						start = v;
+					}
+				}
+			} else if(deltaBytes <= 8192) {
+				out.writeByte(DELTAS);
+				out.writeShort(container.cardinality - 1);
+				int previous = 0;
+				for(int v = 0; v < container.cardinality; v++) {
+					writeVarint(out, values[v] - previous);
+					previous = values[v];
+				}
+			} else {
+				out.writeByte(BITMAP);
+				long words[] = container.words;
+				if(words == null) {
+					Container copy = new Container();
+					copy.values = values;
+					copy.cardinality = container.cardinality;
+					toBitmap(copy);
+					words = copy.words;
+				}
+				for(int w = 0; w < words.length; w++)
+					out.writeLong(words[w]);
+			}
+		}
+	}
+
+	/**
+	 * Legge un insieme scritto con {@link #write(DataOutputStream)}.
+	 *
+	 * @param in Sorgente, posizionata all'inizio dell'insieme
+	 * @return insieme letto
+	 * @throws IOException se il contenuto non e' valido
+	 */
+	static RowBitmap read(ByteBuffer in) throws IOException
+	{
+		RowBitmap bitmap = new RowBitmap();
+		int size = in.getInt();
+		//ogni blocco occupa almeno 3 byte: chiave e tipo
+		if(size < 0 || size > 1 << 16 || size > in.remaining() / 3)
+			throw new IOException("numero di blocchi non valido: " + size);
+		bitmap.keys = new char[size];
+		bitmap.containers = new Container[size];
+		for(int index = 0; index < size; index++) {
+			char key = in.getChar();
+			if(index > 0 && key <= bitmap.keys[index - 1])
+				throw new IOException("blocchi non ordinati");
+			Container container = new Container();
+			byte type = in.get();
+			if(type == DELTAS) {
+				container.cardinality = in.getChar() + 1;
+				container.values = new char[container.cardinality];
+				int value = 0;
+				for(int v = 0; v < container.cardinality; v++) {
+					int delta = readVarint(in);
+					value += delta;
+					if((v > 0 && delta == 0) || value > 0xFFFF)
+						throw new IOException("elementi non ordinati");
+					container.values[v] = (char) value;
+				}
+				if(container.cardinality > ARRAY_MAX)
+					toBitmap(container);
+			} else if(type == BITMAP) {
+				container.words = new long[1024];
+				for(int w = 0; w < container.words.length; w++) {
+					container.words[w] = in.getLong();
+					container.cardinality += Long.bitCount(container.words[w]);
+				}
+			} else if(type == RUNS) {
+				container.words = new long[1024];
+				int runs = in.getChar() + 1;
+				for(int r = 0; r < runs; r++) {
+					int start = in.getChar();
+					int end = start + in.getChar();
+					if(end > 0xFFFF)
+						throw new IOException("intervallo non valido");
+					for(int v = start; v <= end; v++)
+						container.words[v >>> 6] |= 1L << v;
+				}
+				for(int w = 0; w < container.words.length; w++)
+					container.cardinality += Long.bitCount(container.words[w]);
+				if(container.cardinality <= ARRAY_MAX)
+					toArray(container);
+			} else {
+				throw new IOException("tipo di contenitore non valido: " + type);
+			}
+			if(container.cardinality == 0)
+				throw new IOException("blocco vuoto");
+			bitmap.keys[index] = key;
+			bitmap.containers[index] = container;
+			bitmap.cardinality += container.cardinality;
+		}
+		bitmap.size = size;
+		return bitmap;
+	}
+
+	/**
+	 * Scrive value (non negativo) in formato a lunghezza variabile: 7 bit per byte, il bit
+	 * piu' alto indica che seguono altri byte.
+	 */
+	static void writeVarint(DataOutputStream out, int value) throws IOException
+	{
+		while((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Legge un valore scritto con {@link #writeVarint(DataOutputStream, int)}.
+	 */
+	static int readVarint(ByteBuffer in)
+	{
+		int value = 0;
+		for(int shift = 0; ; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if(b >= 0)
+				return value;
+		}
+	}
+
+	private static int varintSize(int value)
+	{
+		return value < 1 << 7 ? 1 : value < 1 << 14 ? 2 : 3;
+	}
+}
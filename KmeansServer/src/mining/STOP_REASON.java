@@ -0,0 +1,13 @@
+package mining;
+
+/**
+* Classe enumerativa che elenca i motivi per cui {@link KMeansMiner#kmeans(data.Data)} termina:
+* CONVERGED (nessuna riga ha cambiato cluster), MAX_ITERATIONS, MIN_REASSIGNED, 
+* CENTROID_SHIFT e DEADLINE (si veda {@link StoppingCriteria}).
+* 
+* @author Veronico, Mazzone, Sgaramella
+*
+*/
+public enum STOP_REASON {
+	CONVERGED, MAX_ITERATIONS, MIN_REASSIGNED, CENTROID_SHIFT, DEADLINE
+}
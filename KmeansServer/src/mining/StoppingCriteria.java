@@ -0,0 +1,114 @@
+package mining;
+
+import java.io.Serializable;
+
+/**
+ * La classe raccoglie le regole di arresto di {@link KMeansMiner#kmeans(data.Data)}, oltre
+ * alla convergenza (nessuna riga cambia cluster) che arresta sempre l'algoritmo.
+ * Ogni regola e' disattivata se il relativo valore e' 0 (valore di default).
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class StoppingCriteria implements Serializable {
+
+	/**
+	 * Numero massimo di iterazioni.
+	 */
+	private int maxIterations;
+
+	/**
+	 * Frazione minima di righe che devono cambiare cluster perche' si esegua
+	 * un'ulteriore iterazione.
+	 */
+	private double minReassignedFraction;
+
+	/**
+	 * Spostamento massimo dei centroidi (distanza tra centroide precedente e nuovo)
+	 * al di sotto del quale l'algoritmo si arresta.
+	 */
+	private double centroidShiftTolerance;
+
+	/**
+	 * Tempo massimo di esecuzione in millisecondi.
+	 */
+	private long deadlineMillis;
+
+	public int getMaxIterations()
+	{
+		return maxIterations;
+	}
+
+	/**
+	 * @param maxIterations Numero massimo di iterazioni, 0 per nessun limite
+	 */
+	public void setMaxIterations(int maxIterations)
+	{
+		this.maxIterations = maxIterations;
+	}
+
+	public double getMinReassignedFraction()
+	{
+		return minReassignedFraction;
+	}
+
+	/**
+	 * @param minReassignedFraction Frazione (tra 0 e 1) di righe spostate al di sotto della
+	 * 		  quale l'algoritmo si arresta, 0 per nessun limite
+	 */
+	public void setMinReassignedFraction(double minReassignedFraction)
+	{
+		this.minReassignedFraction = minReassignedFraction;
+	}
+
+	public double getCentroidShiftTolerance()
+	{
+		return centroidShiftTolerance;
+	}
+
+	/**
+	 * @param centroidShiftTolerance Spostamento massimo dei centroidi al di sotto del quale
+	 * 		  l'algoritmo si arresta, 0 per nessun limite
+	 */
+	public void setCentroidShiftTolerance(double centroidShiftTolerance)
+	{
+		this.centroidShiftTolerance = centroidShiftTolerance;
+	}
+
+	public long getDeadlineMillis()
+	{
+		return deadlineMillis;
+	}
+
+	/**
+	 * @param deadlineMillis Tempo massimo di esecuzione in millisecondi, 0 per nessun limite.
+	 * 		  Il controllo avviene al termine di ogni iterazione.
+	 */
+	public void setDeadlineMillis(long deadlineMillis)
+	{
+		this.deadlineMillis = deadlineMillis;
+	}
+
+	/**
+	 * Verifica le regole di arresto al termine di un'iterazione.
+	 * 
+	 * @param iteration Dati dell'iterazione appena conclusa
+	 * @param numberOfExamples Numero di righe della tabella
+	 * 
+	 * @return Motivo dell'arresto, null se l'algoritmo deve proseguire
+	 */
+	STOP_REASON check(IterationReport iteration, int numberOfExamples)
+	{
+		if(iteration.getMoved() == 0)
+			return STOP_REASON.CONVERGED;
+		if(maxIterations > 0 && iteration.getIteration() >= maxIterations)
+			return STOP_REASON.MAX_ITERATIONS;
+		if(minReassignedFraction > 0 && iteration.getMoved() < minReassignedFraction * numberOfExamples)
+			return STOP_REASON.MIN_REASSIGNED;
+		if(centroidShiftTolerance > 0 && iteration.getCentroidShift() <= centroidShiftTolerance)
+			return STOP_REASON.CENTROID_SHIFT;
+		if(deadlineMillis > 0 && iteration.getElapsedMillis() >= deadlineMillis)
+			return STOP_REASON.DEADLINE;
+		return null;
+	}
+}
@@ -0,0 +1,141 @@
+package mining;
+
+import java.util.List;
+import java.util.Random;
+
+import data.Attribute;
+import data.ClusterStatistics;
+import data.Data;
+import data.Tuple;
+import database.Example;
+import database.ExampleHandler;
+
+/**
+ * La classe realizza la scoperta dei cluster in un'unica passata sulle transazioni lette
+ * dalla base di dati (k-means sequenziale). Le transazioni vengono raccolte in un buffer di
+ * dimensione fissa; quando il buffer e' pieno ogni transazione viene assegnata al cluster con
+ * centroide piu' vicino, le sue statistiche vengono aggiunte a quelle del cluster e i centroidi
+ * coinvolti vengono ricalcolati come media (o valore piu' frequente) di tutte le transazioni
+ * assegnate finora. I centroidi iniziali sono k transazioni distinte del primo buffer scelte
+ * casualmente. La memoria occupata dipende da k, dallo schema e dalla dimensione del buffer,
+ * ma non dal numero di transazioni.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+class StreamingClusterer implements ExampleHandler {
+
+	/**
+	 * Insieme dei cluster da scoprire.
+	 */
+	private ClusterSet C;
+
+	/**
+	 * Schema degli attributi delle transazioni.
+	 */
+	private List<Attribute> schema;
+
+	/**
+	 * Statistiche sufficienti delle transazioni assegnate a ciascun cluster.
+	 */
+	private ClusterStatistics learned[];
+
+	/**
+	 * Transazioni lette e non ancora elaborate.
+	 */
+	private Tuple buffer[];
+
+	/**
+	 * Numero di transazioni presenti in {@link #buffer}.
+	 */
+	private int buffered;
+
+	/**
+	 * Generatore per la scelta dei centroidi iniziali.
+	 */
+	private Random rand;
+
+	/**
+	 * Massima memoria heap occupata osservata ad ogni svuotamento del buffer.
+	 */
+	private long peakHeapBytes;
+
+	/**
+	 * Inizializza l'elaborazione.
+	 * 
+	 * @param C Insieme (vuoto) dei cluster da scoprire
+	 * @param schema Schema degli attributi delle transazioni
+	 * @param bufferSize Dimensione del buffer (almeno pari al numero di cluster)
+	 * @param seed Seme per la scelta dei centroidi iniziali
+	 */
+	StreamingClusterer(ClusterSet C, List<Attribute> schema, int bufferSize, long seed)
+	{
+		this.C = C;
+		this.schema = schema;
+		this.buffer = new Tuple[Math.max(bufferSize, C.C.length)];
+		this.rand = new Random(seed);
+	}
+
+	@Override
+	public void handle(Example example)
+	{
+		buffer[buffered++] = Data.toTuple(schema, example);
+		if(buffered == buffer.length)
+			flush();
+	}
+
+	/**
+	 * Elabora le transazioni presenti nel buffer e lo svuota. Alla prima invocazione sceglie
+	 * i centroidi iniziali, se il buffer contiene almeno k transazioni.
+	 */
+	void flush()
+	{
+		int k = C.C.length;
+		if(learned == null) {
+			if(buffered < k)
+				return;
+			learned = new ClusterStatistics[k];
+			for(int j = 0; j < k; j++) {
+				int pick = j + rand.nextInt(buffered - j);
+				Tuple chosen = buffer[pick];
+				buffer[pick] = buffer[j];
+				buffer[j] = chosen;
+				learned[j] = new ClusterStatistics(schema);
+				C.add(new Cluster(chosen.copy(), learned[j]));
+			}
+		}
+		boolean updated[] = new boolean[k];
+		for(int b = 0; b < buffered; b++) {
+			int nearest = C.nearestClusterIndex(buffer[b]);
+			learned[nearest].add(buffer[b]);
+			updated[nearest] = true;
+			buffer[b] = null;
+		}
+		for(int j = 0; j < k; j++) {
+			if(updated[j])
+				C.get(j).getCentroid().update(learned[j]);
+		}
+		buffered = 0;
+		Runtime runtime = Runtime.getRuntime();
+		peakHeapBytes = Math.max(peakHeapBytes, runtime.totalMemory() - runtime.freeMemory());
+	}
+
+	/**
+	 * Indica se i centroidi iniziali sono stati scelti.
+	 * 
+	 * @return vero se sono state lette almeno k transazioni
+	 */
+	boolean isInitialized()
+	{
+		return learned != null;
+	}
+
+	/**
+	 * Ritorna la massima memoria heap osservata.
+	 * 
+	 * @return {@link #peakHeapBytes}
+	 */
+	long getPeakHeapBytes()
+	{
+		return peakHeapBytes;
+	}
+}
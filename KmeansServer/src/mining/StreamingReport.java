@@ -0,0 +1,87 @@
+package mining;
+
+import java.io.Serializable;
+
+/**
+ * La classe riassume l'esecuzione di {@link KMeansMiner#streamingKmeans(String, int)}:
+ * numero di righe lette, tempo impiegato e massima memoria heap osservata durante la lettura.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+@SuppressWarnings("serial")
+public class StreamingReport implements Serializable {
+
+	/**
+	 * Numero di righe lette dalla base di dati.
+	 */
+	private long rows;
+
+	/**
+	 * Tempo impiegato in millisecondi.
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * Massima memoria heap occupata (in byte) osservata durante la lettura.
+	 */
+	private long peakHeapBytes;
+
+	/**
+	 * Inizializza il riepilogo.
+	 * 
+	 * @param rows Numero di righe lette
+	 * @param elapsedMillis Tempo impiegato in millisecondi
+	 * @param peakHeapBytes Massima memoria heap osservata in byte
+	 */
+	StreamingReport(long rows, long elapsedMillis, long peakHeapBytes)
+	{
+		this.rows = rows;
+		this.elapsedMillis = elapsedMillis;
+		this.peakHeapBytes = peakHeapBytes;
+	}
+
+	/**
+	 * Ritorna il numero di righe lette.
+	 * 
+	 * @return {@link #rows}
+	 */
+	public long getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Ritorna il tempo impiegato.
+	 * 
+	 * @return {@link #elapsedMillis}
+	 */
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+
+	/**
+	 * Ritorna la massima memoria heap osservata.
+	 * 
+	 * @return {@link #peakHeapBytes}
+	 */
+	public long getPeakHeapBytes()
+	{
+		return peakHeapBytes;
+	}
+
+	/**
+	 * Ritorna il numero di righe elaborate al secondo.
+	 * 
+	 * @return righe al secondo
+	 */
+	public double getRowsPerSecond()
+	{
+		return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+	}
+
+	public String toString()
+	{
+		return rows + " righe in " + elapsedMillis + " ms (" + Math.round(getRowsPerSecond()) + " righe/s), heap massimo " + (peakHeapBytes >> 20) + " MB";
+	}
+}
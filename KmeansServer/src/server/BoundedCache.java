@@ -0,0 +1,264 @@
+package server;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * La classe mantiene in memoria, condivisi tra tutti i client, valori costosi da ottenere
+ * (si veda {@link #fetch(Object)}), indicizzati per chiave.
+ * A ogni richiesta il valore memorizzato e' controllato con {@link #isValid(Object, Object)}:
+ * se non e' piu' valido e' rimosso e ottenuto nuovamente.
+ * Quando la memoria stimata (si veda {@link #sizeOf(Object)}) supera {@link #maxBytes}
+ * sono rimossi i valori utilizzati meno di recente.
+ * Richieste contemporanee della stessa chiave non presente attendono un'unica lettura.
+ * Un valore invalidato mentre la sua lettura e' in corso (si veda {@link #discard(Object)})
+ * non viene memorizzato, perche' potrebbe riflettere lo stato precedente all'invalidazione.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public abstract class BoundedCache<K, V> {
+
+	/**
+	 * Valori memorizzati, in ordine di utilizzo (dal meno recente).
+	 */
+	private LinkedHashMap<K, V> entries = new LinkedHashMap<K, V>(16, 0.75f, true);
+
+	/**
+	 * Letture in corso, per chiave. Una lettura rimossa da {@link #discard(Object)} prima del
+	 * termine non memorizza il proprio valore.
+	 */
+	private Map<K, FutureTask<V>> loading = new HashMap<K, FutureTask<V>>();
+
+	/**
+	 * Memoria massima stimata dei valori memorizzati, in byte.
+	 */
+	private long maxBytes;
+
+	/**
+	 * Memoria stimata dei valori memorizzati, in byte.
+	 */
+	private long bytes;
+
+	private long hits, misses, evictions;
+
+	/**
+	 * Numero di valori rimossi perche' non piu' validi.
+	 */
+	private long invalidations;
+
+	/**
+	 * @param maxBytes Memoria massima stimata dei valori memorizzati, in byte
+	 */
+	protected BoundedCache(long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Ritorna il valore di key, ottenendolo con {@link #fetch(Object)} se non e' presente o
+	 * non e' piu' valido. Se la lettura e' gia' in corso per un'altra richiesta ne attende
+	 * l'esito.
+	 *
+	 * @param key Chiave del valore
+	 * @return valore memorizzato o appena letto
+	 * @throws ExecutionException se la lettura non e' riuscita: la causa e' l'eccezione
+	 * 		sollevata da {@link #fetch(Object)}
+	 * @throws InterruptedException se l'attesa della lettura e' interrotta
+	 */
+	protected V lookup(final K key) throws ExecutionException, InterruptedException
+	{
+		V value;
+		synchronized(this) {
+			value = entries.get(key);
+		}
+		if(value != null) {
+			//la validita' e' verificata fuori dal lock, perche' puo' richiedere letture
+			boolean valid = isValid(key, value);
+			synchronized(this) {
+				if(entries.get(key) == value) {
+					if(valid) {
+						hits++;
+						return value;
+					}
+					remove(key);
+					invalidations++;
+				}
+			}
+		}
+		FutureTask<V> task;
+		boolean owner = false;
+		synchronized(this) {
+			task = loading.get(key);
+			if(task == null) {
+				task = new FutureTask<V>(new Callable<V>() {
+					public V call() throws Exception {
+						return fetch(key);
+					}
+				});
+				loading.put(key, task);
+				owner = true;
+				misses++;
+			}
+		}
+		if(owner) {
+			task.run();
+			synchronized(this) {
+				if(loading.get(key) == task) {
+					loading.remove(key);
+					try {
+						store(key, task.get());
+					} catch(ExecutionException e) {
+						//l'errore e' propagato dal get successivo
+					}
+				}
+			}
+		}
+		return task.get();
+	}
+
+	/**
+	 * Ottiene il valore di key, ad esempio leggendolo dalla base di dati o da file.
+	 * E' invocato senza lock, da una sola richiesta per volta per ciascuna chiave.
+	 *
+	 * @param key Chiave del valore
+	 * @return valore letto
+	 * @throws Exception se la lettura non e' riuscita
+	 */
+	protected abstract V fetch(K key) throws Exception;
+
+	/**
+	 * Stima la memoria occupata da un valore.
+	 *
+	 * @param value Valore letto con {@link #fetch(Object)}
+	 * @return numero di byte stimato
+	 */
+	protected abstract long sizeOf(V value);
+
+	/**
+	 * Verifica se il valore memorizzato per key puo' ancora essere restituito. E' invocato
+	 * senza lock, a ogni richiesta di un valore presente. Per default ogni valore e' valido.
+	 *
+	 * @param key Chiave del valore
+	 * @param value Valore memorizzato
+	 * @return vero se il valore e' valido
+	 */
+	protected boolean isValid(K key, V value)
+	{
+		return true;
+	}
+
+	/**
+	 * Rimuove il valore di key, che sara' letto nuovamente alla prossima richiesta.
+	 * Una lettura gia' in corso non e' interrotta, ma il suo valore non sara' memorizzato:
+	 * le richieste che la stanno gia' attendendo lo ricevono, quelle successive avviano
+	 * una nuova lettura.
+	 *
+	 * @param key Chiave del valore
+	 */
+	protected synchronized void discard(K key)
+	{
+		remove(key);
+		loading.remove(key);
+	}
+
+	/**
+	 * Rimuove tutti i valori memorizzati; le letture in corso non saranno memorizzate.
+	 */
+	public synchronized void invalidateAll()
+	{
+		entries.clear();
+		loading.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Memorizza un valore appena letto, rimuovendo quelli utilizzati meno di recente
+	 * finche' la memoria stimata non rientra in {@link #maxBytes}. Un valore che da solo
+	 * supera il limite non viene memorizzato.
+	 */
+	private void store(K key, V value)
+	{
+		long size = sizeOf(value);
+		if(size > maxBytes)
+			return;
+		remove(key);
+		entries.put(key, value);
+		bytes += size;
+		Iterator<V> iterator = entries.values().iterator();
+		while(bytes > maxBytes && iterator.hasNext()) {
+			bytes -= sizeOf(iterator.next());
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	private void remove(K key)
+	{
+		V value = entries.remove(key);
+		if(value != null)
+			bytes -= sizeOf(value);
+	}
+
+	/**
+	 * Ritorna la causa di un errore di lettura, in modo che il chiamante possa rilanciarla
+	 * con il proprio tipo. Le cause non controllate sono rilanciate direttamente.
+	 *
+	 * @param e Errore di lettura ottenuto da {@link #lookup(Object)}
+	 * @return causa dell'errore, un'eccezione controllata sollevata da {@link #fetch(Object)}
+	 */
+	protected static Exception unwrap(ExecutionException e)
+	{
+		Throwable cause = e.getCause();
+		if(cause instanceof RuntimeException)
+			throw (RuntimeException) cause;
+		if(cause instanceof Error)
+			throw (Error) cause;
+		if(cause instanceof Exception)
+			return (Exception) cause;
+		throw new IllegalStateException(cause);
+	}
+
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	/**
+	 * @return numero di valori rimossi perche' non piu' validi
+	 */
+	public synchronized long getInvalidations()
+	{
+		return invalidations;
+	}
+
+	/**
+	 * @return numero di valori memorizzati
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return memoria stimata dei valori memorizzati, in byte
+	 */
+	public synchronized long getSizeInBytes()
+	{
+		return bytes;
+	}
+}
@@ -0,0 +1,179 @@
+package server;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+
+import data.Data;
+import database.DatabaseConnectionException;
+import database.EmptySetException;
+import database.NoValueException;
+import database.TableData;
+
+/**
+ * La classe mantiene in memoria, condivisi tra tutti i client, gli oggetti {@link Data}
+ * gia' letti dalla base di dati, indicizzati per nome della tabella e modalita' di lettura
+ * (si veda {@link #get(String, boolean)}).
+ * Un oggetto e' letto nuovamente dalla base di dati se e' trascorso piu' di
+ * {@link #ttlMillis} dalla sua lettura oppure se e' stato invalidato con
+ * {@link #invalidate(String)}. Memoria occupata e letture contemporanee sono gestite da
+ * {@link BoundedCache}, con la memoria stimata da {@link Data#getSizeInBytes()}.
+ * 
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class DataCache extends BoundedCache<DataCache.Key, DataCache.Entry> {
+
+	/**
+	 * Nome della tabella e modalita' di lettura: la stessa tabella letta con e senza pesi
+	 * da' luogo a oggetti {@link Data} diversi.
+	 */
+	static class Key {
+		private String tableName;
+		private boolean weighted;
+
+		private Key(String tableName, boolean weighted)
+		{
+			this.tableName = tableName;
+			this.weighted = weighted;
+		}
+
+		public boolean equals(Object o)
+		{
+			if(!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return tableName.equals(other.tableName) && weighted == other.weighted;
+		}
+
+		public int hashCode()
+		{
+			return 31 * tableName.hashCode() + (weighted ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Tabella memorizzata con l'istante della lettura e la memoria stimata.
+	 */
+	static class Entry {
+		private Data data;
+		private long loadedAt;
+		private long bytes;
+
+		private Entry(Data data, long loadedAt)
+		{
+			this.data = data;
+			this.loadedAt = loadedAt;
+			this.bytes = data.getSizeInBytes();
+		}
+	}
+
+	/**
+	 * Tempo massimo di permanenza di una tabella in millisecondi (0 per nessun limite).
+	 */
+	private long ttlMillis;
+
+	/**
+	 * @param maxBytes Memoria massima stimata delle tabelle memorizzate, in byte
+	 * @param ttlMillis Tempo massimo di permanenza di una tabella, 0 per nessun limite
+	 */
+	public DataCache(long maxBytes, long ttlMillis)
+	{
+		super(maxBytes);
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Ritorna la tabella tableName letta scartando le transazioni duplicate
+	 * (si veda {@link #get(String, boolean)}).
+	 * 
+	 * @param tableName Nome della tabella nella base di dati
+	 * @return tabella letta
+	 */
+	public Data get(String tableName) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException, InterruptedException
+	{
+		return get(tableName, false);
+	}
+
+	/**
+	 * Ritorna la tabella tableName nella modalita' richiesta, leggendola dalla base di dati
+	 * se non e' presente o e' scaduta. Se la lettura e' gia' in corso per un'altra richiesta
+	 * ne attende l'esito. Con weighted vero le transazioni duplicate sono raggruppate e
+	 * pesate anziche' scartate (si veda {@link Data#Data(String, int, boolean)}); le due
+	 * modalita' sono memorizzate separatamente.
+	 * 
+	 * @param tableName Nome della tabella nella base di dati
+	 * @param weighted Vero per la lettura pesata
+	 * @return tabella letta
+	 */
+	public Data get(String tableName, boolean weighted) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException, InterruptedException
+	{
+		try {
+			return lookup(new Key(tableName, weighted)).data;
+		} catch(ExecutionException e) {
+			Exception cause = unwrap(e);
+			if(cause instanceof ClassNotFoundException)
+				throw (ClassNotFoundException) cause;
+			if(cause instanceof DatabaseConnectionException)
+				throw (DatabaseConnectionException) cause;
+			if(cause instanceof SQLException)
+				throw (SQLException) cause;
+			if(cause instanceof NoValueException)
+				throw (NoValueException) cause;
+			if(cause instanceof InstantiationException)
+				throw (InstantiationException) cause;
+			if(cause instanceof EmptySetException)
+				throw (EmptySetException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	protected Entry fetch(Key key) throws Exception
+	{
+		return new Entry(load(key.tableName, key.weighted), System.currentTimeMillis());
+	}
+
+	protected long sizeOf(Entry entry)
+	{
+		return entry.bytes;
+	}
+
+	/**
+	 * Una tabella e' valida se non e' trascorso piu' di {@link #ttlMillis} dalla lettura.
+	 */
+	protected boolean isValid(Key key, Entry entry)
+	{
+		return ttlMillis == 0 || System.currentTimeMillis() - entry.loadedAt <= ttlMillis;
+	}
+
+	/**
+	 * Legge la tabella tableName dalla base di dati.
+	 * 
+	 * @param tableName Nome della tabella nella base di dati
+	 * @param weighted Vero per la lettura pesata
+	 * @return tabella letta
+	 */
+	protected Data load(String tableName, boolean weighted) throws ClassNotFoundException, DatabaseConnectionException, SQLException, NoValueException, InstantiationException, EmptySetException
+	{
+		Data data = new Data(tableName, TableData.STREAMING_FETCH_SIZE, weighted);
+		System.out.println(tableName + " letta: " + data.getLoadReport());
+		return data;
+	}
+
+	/**
+	 * Rimuove la tabella tableName, in entrambe le modalita', che sara' letta nuovamente
+	 * alla prossima richiesta. Una lettura gia' in corso non e' interrotta, ma il suo
+	 * risultato non sara' memorizzato.
+	 * 
+	 * @param tableName Nome della tabella
+	 */
+	public void invalidate(String tableName)
+	{
+		discard(new Key(tableName, false));
+		discard(new Key(tableName, true));
+	}
+
+	public synchronized String toString()
+	{
+		return "tabelle=" + size() + " byte=" + getSizeInBytes() + " hit=" + getHits() + " miss=" + getMisses()
+				+ " rimozioni=" + getEvictions() + " scadute=" + getInvalidations();
+	}
+}
@@ -0,0 +1,209 @@
+package server;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.CRC32;
+
+import mining.KMeansMiner;
+
+/**
+ * La classe mantiene in memoria, condivisi tra tutti i client, i cluster gia' letti da
+ * file (si veda {@link KMeansMiner#KMeansMiner(String)}), indicizzati per percorso del file.
+ * A ogni richiesta la data di modifica e la dimensione del file sono confrontate con
+ * quelle registrate alla lettura: se coincidono i cluster sono restituiti dalla memoria,
+ * altrimenti il file e' letto nuovamente, a meno che il suo checksum (CRC32) non sia
+ * rimasto invariato.
+ * Poiche' la data di modifica puo' avere una risoluzione grossolana (fino a
+ * {@link #RACY_MILLIS}), un file modificato poco prima della lettura potrebbe cambiare
+ * senza che la data cambi: in questo caso il checksum e' verificato a ogni richiesta,
+ * finche' non e' trascorso abbastanza tempo dalla modifica.
+ * Memoria occupata e letture contemporanee sono gestite da {@link BoundedCache}, con la
+ * memoria stimata da {@link mining.ClusterSet#getSizeInBytes()}.
+ *
+ * @author Veronico, Mazzone, Sgaramella
+ */
+public class ModelCache extends BoundedCache<String, ModelCache.Entry> {
+
+	/**
+	 * Risoluzione massima della data di modifica dei file, in millisecondi.
+	 */
+	static final long RACY_MILLIS = 2000;
+
+	/**
+	 * Cluster memorizzati con lo stato del file al momento della lettura.
+	 */
+	static class Entry {
+		private KMeansMiner miner;
+		private long lastModified;
+		private long length;
+		private long checksum;
+		private long bytes;
+
+		/**
+		 * Vero se il file e' stato modificato meno di {@link #RACY_MILLIS} prima
+		 * dell'ultima verifica, per cui la data di modifica non basta a rilevare i cambiamenti.
+		 */
+		private boolean racy;
+
+		private Entry(KMeansMiner miner, long lastModified, long length, long checksum, long checkedAt)
+		{
+			this.miner = miner;
+			this.length = length;
+			this.checksum = checksum;
+			this.bytes = miner.getC().getSizeInBytes();
+			verified(lastModified, checkedAt);
+		}
+
+		/**
+		 * Registra che il contenuto del file, con data di modifica lastModified, e' stato
+		 * verificato all'istante checkedAt.
+		 */
+		private void verified(long lastModified, long checkedAt)
+		{
+			this.lastModified = lastModified;
+			this.racy = checkedAt - lastModified < RACY_MILLIS;
+		}
+
+		private boolean isCurrent(long lastModified, long length)
+		{
+			return !racy && this.lastModified == lastModified && this.length == length;
+		}
+	}
+
+	/**
+	 * @param maxBytes Memoria massima stimata dei cluster memorizzati, in byte
+	 */
+	public ModelCache(long maxBytes)
+	{
+		super(maxBytes);
+	}
+
+	/**
+	 * Ritorna i cluster salvati nel file fileName, leggendoli se non sono presenti o se il
+	 * file e' stato modificato. Se la lettura e' gia' in corso per un'altra richiesta ne
+	 * attende l'esito. L'oggetto ritornato e' condiviso e non va modificato.
+	 *
+	 * @param fileName Nome del file
+	 * @return cluster letti
+	 * @throws FileNotFoundException se il file non esiste
+	 */
+	public KMeansMiner get(String fileName) throws FileNotFoundException, IOException, ClassNotFoundException, InterruptedException
+	{
+		File file = new File(fileName).getCanonicalFile();
+		String key = file.getPath();
+		if(!file.isFile()) {
+			discard(key);
+			throw new FileNotFoundException(fileName);
+		}
+		try {
+			return lookup(key).miner;
+		} catch(ExecutionException e) {
+			Exception cause = unwrap(e);
+			if(cause instanceof IOException)
+				throw (IOException) cause;
+			if(cause instanceof ClassNotFoundException)
+				throw (ClassNotFoundException) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Legge i cluster dal file key, registrando lo stato del file prima della lettura, in
+	 * modo che una modifica successiva sia rilevata alla prossima richiesta.
+	 */
+	protected Entry fetch(String key) throws Exception
+	{
+		File file = new File(key);
+		long lastModified = file.lastModified();
+		long length = file.length();
+		long checksum = checksum(file);
+		long checkedAt = System.currentTimeMillis();
+		return new Entry(load(key), lastModified, length, checksum, checkedAt);
+	}
+
+	protected long sizeOf(Entry entry)
+	{
+		return entry.bytes;
+	}
+
+	/**
+	 * Confronta data di modifica e dimensione del file con quelle registrate; se la data
+	 * e' cambiata o non e' affidabile ma la dimensione coincide decide il checksum.
+	 */
+	protected boolean isValid(String key, Entry entry)
+	{
+		File file = new File(key);
+		long lastModified = file.lastModified();
+		long length = file.length();
+		synchronized(this) {
+			if(entry.isCurrent(lastModified, length))
+				return true;
+		}
+		if(entry.length != length)
+			return false;
+		long now = System.currentTimeMillis();
+		try {
+			if(checksum(file) != entry.checksum)
+				return false;
+		} catch(IOException e) {
+			//il file sara' letto nuovamente, riportando l'errore
+			return false;
+		}
+		synchronized(this) {
+			entry.verified(lastModified, now);
+		}
+		return true;
+	}
+
+	/**
+	 * Legge i cluster dal file fileName.
+	 *
+	 * @param fileName Percorso del file
+	 * @return cluster letti
+	 */
+	protected KMeansMiner load(String fileName) throws FileNotFoundException, IOException, ClassNotFoundException
+	{
+		return new KMeansMiner(fileName);
+	}
+
+	/**
+	 * Calcola il CRC32 del contenuto del file.
+	 */
+	private static long checksum(File file) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		byte buffer[] = new byte[64 * 1024];
+		InputStream in = new FileInputStream(file);
+		try {
+			int read;
+			while((read = in.read(buffer)) > 0)
+				crc.update(buffer, 0, read);
+		} finally {
+			in.close();
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Rimuove i cluster del file fileName, che sara' letto nuovamente alla prossima
+	 * richiesta. Una lettura gia' in corso non e' interrotta, ma il suo risultato non sara'
+	 * memorizzato.
+	 *
+	 * @param fileName Nome del file
+	 * @throws IOException se non e' possibile risolvere il percorso del file
+	 */
+	public void invalidate(String fileName) throws IOException
+	{
+		discard(new File(fileName).getCanonicalPath());
+	}
+
+	public synchronized String toString()
+	{
+		return "modelli=" + size() + " byte=" + getSizeInBytes() + " hit=" + getHits() + " miss=" + getMisses()
+				+ " rimozioni=" + getEvictions() + " modificati=" + getInvalidations();
+	}
+}
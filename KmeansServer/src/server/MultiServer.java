@@ -3,6 +3,8 @@ package server;
 import java.io.*;
 import java.net.*;
 
+import mining.ModelWriter;
+
 /**
  * La classe MultiServer modella un server in grado di ascoltare differenti richieste per
  * differenti client andando quindi a realizzare un server che ascolta piu' richieste.
@@ -16,6 +18,33 @@ public class MultiServer
 	 * Sara' inizializzato a 8080
 	 */
 	private int PORT = 8080;
+	
+	/**
+	 * Tempo massimo di permanenza di una tabella in {@link DataCache} (10 minuti).
+	 */
+	private static final long CACHE_TTL_MILLIS = 10 * 60 * 1000;
+	
+	/**
+	 * Tabelle lette dalla base di dati, condivise tra i client. La memoria stimata
+	 * delle tabelle non supera un quarto della memoria massima della JVM.
+	 */
+	private DataCache cache = new DataCache(Runtime.getRuntime().maxMemory() / 4, CACHE_TTL_MILLIS);
+	
+	/**
+	 * Cluster letti da file, condivisi tra i client. La memoria stimata dei cluster non
+	 * supera un sedicesimo della memoria massima della JVM.
+	 */
+	private ModelCache models = new ModelCache(Runtime.getRuntime().maxMemory() / 16);
+	
+	/**
+	 * Numero massimo di file in attesa di essere salvati da {@link #writer}.
+	 */
+	private static final int WRITER_CAPACITY = 64;
+	
+	/**
+	 * Salvataggio dei cluster su file, separato dalla risposta ai client.
+	 */
+	private ModelWriter writer = new ModelWriter(WRITER_CAPACITY);
 
 	/**
 	 * Costruttore di classe. Inizializza la porta ed invoca run()
@@ -39,6 +68,16 @@ public class MultiServer
 	 */
 	private void run() throws IOException
 	{
+		//i salvataggi gia' richiesti sono completati prima della chiusura del server
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			public void run() {
+				try {
+					writer.close();
+				} catch(InterruptedException e) {
+					System.err.println("Salvataggi interrotti: " + writer);
+				}
+			}
+		});
 		ServerSocket s = new ServerSocket(PORT);
 		System.out.println("Server Started");
 		try 
@@ -49,7 +88,7 @@ public class MultiServer
 				Socket socket = s.accept();
 				try 
 				{
-					new ServerOneClient(socket);
+					new ServerOneClient(socket, cache, models, writer);
 				} 
 				catch(IOException e) 
 				{
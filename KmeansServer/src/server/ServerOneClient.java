@@ -1,5 +1,6 @@
 package server;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -9,10 +10,20 @@ import java.sql.SQLException;
 
 import data.Data;
 import data.OutOfRangeSampleSize;
+import data.SAMPLING_TYPE;
 import database.DatabaseConnectionException;
 import database.EmptySetException;
 import database.NoValueException;
+import mining.CoresetReport;
 import mining.KMeansMiner;
+import mining.KMeansReport;
+import mining.KSweep;
+import mining.KSweepReport;
+import mining.MiniBatchReport;
+import mining.ModelWriter;
+import mining.MultiRestartReport;
+import mining.StoppingCriteria;
+import mining.StreamingReport;
 
 /**
  * Classe concreta che modella il comportamento del server a connessione avvenuta.
@@ -24,14 +35,60 @@ public class ServerOneClient extends Thread{
 	private ObjectInputStream in; 
 	private ObjectOutputStream out;
 	private KMeansMiner kmeans;
+	
+	/**
+	 * Tabelle lette dalla base di dati, condivise tra i client.
+	 */
+	private DataCache cache;
+	
+	/**
+	 * Cluster letti da file, condivisi tra i client.
+	 */
+	private ModelCache models;
+	
+	/**
+	 * Salvataggio dei cluster su file, condiviso tra i client.
+	 */
+	private ModelWriter writer;
+	
+	/**
+	 * Numero di righe elaborate insieme nella scoperta dei cluster in un'unica passata.
+	 */
+	private static final int STREAMING_BUFFER_SIZE = 10000;
+	
+	/**
+	 * Dimensione massima del coreset nella scoperta dei cluster su tabelle di grandi dimensioni.
+	 */
+	private static final int CORESET_SIZE = 10000;
+	
+	/**
+	 * Numero massimo di iterazioni di k-means per una singola richiesta.
+	 */
+	private static final int MAX_ITERATIONS = 1000;
+	
+	/**
+	 * Tempo massimo in millisecondi di k-means per una singola richiesta.
+	 */
+	private static final long DEADLINE_MILLIS = 5 * 60 * 1000;
+	
+	/**
+	 * Tempo minimo in millisecondi tra due salvataggi dello stato di k-means.
+	 */
+	private static final long CHECKPOINT_MILLIS = 30 * 1000;
 
 	/**
 //	 * Costuttore di classe che inizializza la socket, gli stream di input e output e avvia il thread.
 	 * @param s Socket.
+	 * @param cache Tabelle lette dalla base di dati, condivise tra i client
+	 * @param models Cluster letti da file, condivisi tra i client
+	 * @param writer Salvataggio dei cluster su file, condiviso tra i client
 	 * @throws IOException
 	 */
-	public ServerOneClient(Socket s) throws IOException {
+	public ServerOneClient(Socket s, DataCache cache, ModelCache models, ModelWriter writer) throws IOException {
 		this.socket = s;
+		this.cache = cache;
+		this.models = models;
+		this.writer = writer;
 		out = new ObjectOutputStream(socket.getOutputStream());	
 		in = new ObjectInputStream(socket.getInputStream()) ;		
 		this.start();		
@@ -39,18 +96,48 @@ public class ServerOneClient extends Thread{
 
 	/**
 	 * Metodo che esegue la richiesta del client.
+	 * 1: lettura dei cluster da file, tramite {@link ModelCache};
+	 * 2: scoperta dei cluster (k, tabella, file) con {@link KMeansMiner#kmeans(Data)}; lo
+	 *    stato dell'esecuzione e' salvato periodicamente nel file con estensione .ckp e, se
+	 *    la stessa richiesta era stata interrotta, l'esecuzione riprende da tale stato con
+	 *    {@link KMeansMiner#resume(Data, String)};
+	 * 3: come 2, seguita da dimensione del batch e numero di iterazioni, con
+	 *    {@link KMeansMiner#miniBatchKmeans(Data, int, int)};
+	 * 4: scoperta dei cluster (k, tabella, file) in un'unica passata sulla tabella, con
+	 *    {@link KMeansMiner#streamingKmeans(String, int)};
+	 * 5: come 2, seguita dal numero di esecuzioni, con
+	 *    {@link KMeansMiner#multiRestartKmeans(Data, int, int)};
+	 * 6: scelta automatica di k (k minimo, k massimo, tabella, file) con {@link KSweep}:
+	 *    sono inviati la curva di SSE e silhouette e i cluster del k suggerito;
+	 * 7: rimozione della tabella (nome) da {@link DataCache}, che sara' letta nuovamente
+	 *    dalla base di dati alla prossima richiesta;
+	 * 8: scoperta dei cluster (k, tabella, file) su un coreset della tabella, senza
+	 *    memorizzarla, con {@link KMeansMiner#coresetKmeans(String, int, boolean)};
+	 * 9: seguito da 2, 3, 5 o 6 e dai relativi parametri, esegue tale richiesta leggendo la
+	 *    tabella in modalita' pesata (si veda {@link DataCache#get(String, boolean)}).
+	 * Le tabelle sono lette tramite {@link DataCache}. I cluster scoperti sono inviati al
+	 * client prima del salvataggio su file, che avviene in background tramite
+	 * {@link ModelWriter}; la lettura da file attende il salvataggio in corso dello stesso file.
 	 */
 	@SuppressWarnings("unused")
 	@Override
 	public void run() {
 		try {
 			int answerMenu = in.readInt();
+			boolean weighted = false;
+			if(answerMenu == 9) {
+				weighted = true;
+				answerMenu = in.readInt();
+				if(answerMenu != 2 && answerMenu != 3 && answerMenu != 5 && answerMenu != 6)
+					return;
+			}
 			switch(answerMenu) {
 			case 1:
 				String fileName = in.readObject().toString();
 				try
 				{
-					this.kmeans = new KMeansMiner(fileName + ".dmp");
+					writer.await(fileName + ".dmp");
+					this.kmeans = models.get(fileName + ".dmp");
 					out.writeObject("OK");
 				}
 				catch(FileNotFoundException e)
@@ -61,12 +148,27 @@ public class ServerOneClient extends Thread{
 				out.writeObject(kmeans.getC().toString());
 				break;							
 			case 2:
+			case 3:
+			case 5:
 				int k = Integer.parseInt(in.readObject().toString());
 				String tableName = in.readObject().toString();
 				String file = in.readObject().toString();
+				int batchSize = 0;
+				int iterations = 0;
+				int restarts = 0;
+				if(answerMenu == 3)
+				{
+					batchSize = Integer.parseInt(in.readObject().toString());
+					iterations = Integer.parseInt(in.readObject().toString());
+				}
+				else if(answerMenu == 5)
+				{
+					restarts = Integer.parseInt(in.readObject().toString());
+				}
+				Data data;
 				try
 				{
-					Data data = new Data(tableName);
+					data = cache.get(tableName, weighted);
 					out.writeObject("OK");
 				}
 				catch(SQLException e)
@@ -74,8 +176,7 @@ public class ServerOneClient extends Thread{
 					out.writeObject("Errore!");
 					break;
 				}
-				Data data = new Data(tableName);
-				if(k<=0||k>data.getNumberOfExamples())
+				if(k<=0||k>data.getNumberOfExamples()||(answerMenu == 3 && (batchSize<=0||iterations<=0))||(answerMenu == 5 && restarts<=0))
 				{
 					out.writeObject("NO");
 					break;
@@ -85,10 +186,162 @@ public class ServerOneClient extends Thread{
 					out.writeObject("OK");
 				}
 				this.kmeans = new KMeansMiner(k);
-				kmeans.kmeans(data);
-				kmeans.salva(file + ".dmp");
+				kmeans.setParallelism(Runtime.getRuntime().availableProcessors());
+				if(answerMenu == 3) {
+					MiniBatchReport report = kmeans.miniBatchKmeans(data, batchSize, iterations);
+					System.out.println(report);
+				} else {
+					StoppingCriteria criteria = new StoppingCriteria();
+					criteria.setMaxIterations(MAX_ITERATIONS);
+					criteria.setDeadlineMillis(DEADLINE_MILLIS);
+					kmeans.setStoppingCriteria(criteria);
+					if(answerMenu == 5) {
+						kmeans.setParallelism(1);
+						MultiRestartReport report = kmeans.multiRestartKmeans(data, restarts, Runtime.getRuntime().availableProcessors());
+						System.out.print(report);
+					} else {
+						String checkpoint = file + ".ckp";
+						kmeans.setCheckpoint(checkpoint, CHECKPOINT_MILLIS);
+						KMeansReport report = null;
+						if(new File(checkpoint).isFile()) {
+							try {
+								report = kmeans.resume(data, checkpoint);
+								System.out.println(checkpoint + " ripreso");
+							} catch(IOException e) {
+								System.err.println(checkpoint + " ignorato: " + e.getMessage());
+							}
+						}
+						if(report == null)
+							report = kmeans.kmeans(data);
+						System.out.println("Iterazioni: " + report.getNumberOfIterations() + " (" + report.getStopReason() + "), SSE: " + report.getSse() + ", ms: " + report.getElapsedMillis());
+					}
+				}
 				out.writeObject(kmeans.getC().toString(data));
 				out.writeObject("OK");
+				kmeans.salva(file + ".dmp", writer);
+				break;
+			case 4:
+				int streamingK = Integer.parseInt(in.readObject().toString());
+				String streamingTable = in.readObject().toString();
+				String streamingFile = in.readObject().toString();
+				if(streamingK<=0)
+				{
+					out.writeObject("NO");
+					break;
+				}
+				this.kmeans = new KMeansMiner(streamingK);
+				StreamingReport report;
+				try
+				{
+					report = kmeans.streamingKmeans(streamingTable, STREAMING_BUFFER_SIZE);
+				}
+				catch(SQLException e)
+				{
+					out.writeObject("Errore!");
+					break;
+				}
+				catch(IllegalArgumentException e)
+				{
+					//valore non presente nel dominio letto prima della passata
+					System.err.println(streamingTable + ": " + e.getMessage());
+					out.writeObject("Errore!");
+					break;
+				}
+				catch(OutOfRangeSampleSize e)
+				{
+					out.writeObject("NO");
+					break;
+				}
+				System.out.println(streamingTable + ": " + report);
+				out.writeObject("OK");
+				out.writeObject(kmeans.getC().toString());
+				out.writeObject(report.toString());
+				kmeans.salva(streamingFile + ".dmp", writer);
+				break;
+			case 6:
+				int minK = Integer.parseInt(in.readObject().toString());
+				int maxK = Integer.parseInt(in.readObject().toString());
+				String sweepTable = in.readObject().toString();
+				String sweepFile = in.readObject().toString();
+				Data sweepData;
+				try
+				{
+					sweepData = cache.get(sweepTable, weighted);
+					out.writeObject("OK");
+				}
+				catch(SQLException e)
+				{
+					out.writeObject("Errore!");
+					break;
+				}
+				if(minK<=0||maxK<minK||maxK>sweepData.getNumberOfExamples())
+				{
+					out.writeObject("NO");
+					break;
+				}
+				out.writeObject("OK");
+				KSweep sweep = new KSweep(minK, maxK);
+				sweep.setThreads(Runtime.getRuntime().availableProcessors());
+				StoppingCriteria sweepCriteria = new StoppingCriteria();
+				sweepCriteria.setMaxIterations(MAX_ITERATIONS);
+				sweepCriteria.setDeadlineMillis(DEADLINE_MILLIS);
+				sweep.setStoppingCriteria(sweepCriteria);
+				KSweepReport sweepReport = sweep.run(sweepData);
+				System.out.print(sweepTable + ": " + sweepReport);
+				this.kmeans = sweepReport.getRecommendedMiner();
+				out.writeObject(sweepReport.toString());
+				out.writeObject(kmeans.getC().toString(sweepData));
+				out.writeObject("OK");
+				kmeans.salva(sweepFile + ".dmp", writer);
+				break;
+			case 7:
+				String invalidTable = in.readObject().toString();
+				cache.invalidate(invalidTable);
+				System.out.println(invalidTable + " rimossa: " + cache);
+				out.writeObject("OK");
+				break;
+			case 8:
+				int coresetK = Integer.parseInt(in.readObject().toString());
+				String coresetTable = in.readObject().toString();
+				String coresetFile = in.readObject().toString();
+				if(coresetK<=0||coresetK>CORESET_SIZE)
+				{
+					out.writeObject("NO");
+					break;
+				}
+				this.kmeans = new KMeansMiner(coresetK);
+				kmeans.setSamplingType(SAMPLING_TYPE.KMEANS_PLUS_PLUS);
+				StoppingCriteria coresetCriteria = new StoppingCriteria();
+				coresetCriteria.setMaxIterations(MAX_ITERATIONS);
+				coresetCriteria.setDeadlineMillis(DEADLINE_MILLIS);
+				kmeans.setStoppingCriteria(coresetCriteria);
+				CoresetReport coresetReport;
+				try
+				{
+					coresetReport = kmeans.coresetKmeans(coresetTable, CORESET_SIZE, false);
+				}
+				catch(SQLException e)
+				{
+					out.writeObject("Errore!");
+					break;
+				}
+				catch(IllegalArgumentException e)
+				{
+					//valore non presente nel dominio letto prima della passata
+					System.err.println(coresetTable + ": " + e.getMessage());
+					out.writeObject("Errore!");
+					break;
+				}
+				catch(OutOfRangeSampleSize e)
+				{
+					out.writeObject("NO");
+					break;
+				}
+				System.out.println(coresetTable + ": " + coresetReport);
+				out.writeObject("OK");
+				out.writeObject(kmeans.getC().toString());
+				out.writeObject(coresetReport.toString());
+				kmeans.salva(coresetFile + ".dmp", writer);
 				break;
 			default:
 				return;
@@ -101,14 +354,14 @@ public class ServerOneClient extends Thread{
 			e.printStackTrace();
 		} catch (DatabaseConnectionException e) {
 			e.printStackTrace();
-		} catch (SQLException e) {
-			e.printStackTrace();
 		} catch (EmptySetException e) {
 			e.printStackTrace();
 		} catch (NoValueException e) {
 			e.printStackTrace();
 		} catch (OutOfRangeSampleSize e) {
 			e.printStackTrace();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
 		}
 		finally 
 		{